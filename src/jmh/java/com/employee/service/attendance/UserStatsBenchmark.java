@@ -0,0 +1,287 @@
+package com.employee.service.attendance;
+
+import com.employee.dto.DailyStatsDTO;
+import com.employee.dto.user.UserAttendanceStatsDTO;
+import com.employee.model.attendance.AttendanceRecord;
+import com.employee.model.attendance.AttendanceStatus;
+import com.employee.model.timesheet.TimeEntry;
+import com.employee.repository.AttendanceStatsJdbcRepository.RollupDay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Single-pass UserStatsAccumulator against the multi-pass statistics it replaced, on one
+// user with one record and one time entry per day. multiPass and singlePassFromRecords both
+// start from the same records and time entries; the latter derives the rollup rows itself,
+// so the two compare like for like. singlePass and singlePassMerged start from prebuilt rollup
+// rows, as the service does now that the database keeps them, and only measure the fold.
+//
+//   mvn -Pbenchmark -DskipTests compile exec:exec
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserStatsBenchmark {
+    private static final LocalTime LATE_AFTER = LocalTime.of(9, 0);
+    private static final LocalTime EARLY_BEFORE = LocalTime.of(17, 0);
+
+    @Param("10000")
+    private int records;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<AttendanceRecord> attendanceRecords;
+    private List<TimeEntry> timeEntries;
+    private List<RollupDay> rollupDays;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        startDate = LocalDate.of(2000, 1, 1);
+        endDate = startDate.plusDays(records - 1);
+        attendanceRecords = new ArrayList<>(records);
+        timeEntries = new ArrayList<>(records);
+
+        for (int i = 0; i < records; i++) {
+            LocalDate date = startDate.plusDays(i);
+            LocalDateTime checkIn = date.atTime(8, 0).plusMinutes(random.nextInt(120));
+            // Every tenth day is still open
+            LocalDateTime checkOut = i % 10 == 0 ? null : date.atTime(16, 0).plusMinutes(random.nextInt(150));
+            double hours = 4 + random.nextInt(9) / 2.0;
+            AttendanceStatus status = checkOut != null ? AttendanceStatus.CHECKED_OUT : AttendanceStatus.CHECKED_IN;
+
+            attendanceRecords.add(AttendanceRecord.builder()
+                    .id((long) i)
+                    .workDate(date)
+                    .checkInTime(checkIn)
+                    .checkOutTime(checkOut)
+                    .status(status)
+                    .build());
+            timeEntries.add(TimeEntry.builder()
+                    .id((long) i)
+                    .date(date)
+                    .hours(hours)
+                    .build());
+        }
+        // All read newest first
+        Collections.reverse(attendanceRecords);
+        Collections.reverse(timeEntries);
+        rollupDays = toRollupDays(attendanceRecords, timeEntries);
+    }
+
+    // What the rollup maintenance derives per user day, here from the records and time entries
+    private static List<RollupDay> toRollupDays(List<AttendanceRecord> records, List<TimeEntry> entries) {
+        Map<LocalDate, double[]> trackedByDate = new HashMap<>();
+        for (TimeEntry entry : entries) {
+            double[] tracked = trackedByDate.computeIfAbsent(entry.getDate(), date -> new double[2]);
+            tracked[0] += entry.getHours();
+            tracked[1]++;
+        }
+
+        List<RollupDay> days = new ArrayList<>(records.size());
+        for (AttendanceRecord record : records) {
+            LocalDateTime checkIn = record.getCheckInTime();
+            LocalDateTime checkOut = record.getCheckOutTime();
+            double[] tracked = trackedByDate.getOrDefault(checkIn.toLocalDate(), new double[2]);
+            days.add(RollupDay.builder()
+                    .userId(1L)
+                    .date(checkIn.toLocalDate())
+                    .recordCount(1)
+                    .present(record.getStatus() == AttendanceStatus.CHECKED_OUT)
+                    .status(record.getStatus())
+                    .firstCheckIn(checkIn)
+                    .lastCheckOut(checkOut)
+                    .attendanceMinutes(checkOut != null ? ChronoUnit.MINUTES.between(checkIn, checkOut) : 0)
+                    .checkInSecondsSum(checkIn.toLocalTime().toSecondOfDay())
+                    .checkOutCount(checkOut != null ? 1 : 0)
+                    .checkOutSecondsSum(checkOut != null ? checkOut.toLocalTime().toSecondOfDay() : 0)
+                    .lateCheckIns(checkIn.toLocalTime().isAfter(LATE_AFTER) ? 1 : 0)
+                    .earlyCheckOuts(checkOut != null && checkOut.toLocalTime().isBefore(EARLY_BEFORE) ? 1 : 0)
+                    .trackedHours(tracked[0])
+                    .entryCount((int) tracked[1])
+                    .build());
+        }
+        return days;
+    }
+
+    @Benchmark
+    public UserAttendanceStatsDTO multiPass() {
+        return MultiPassStats.compute(1L, "Bench User", startDate, endDate, attendanceRecords, timeEntries);
+    }
+
+    @Benchmark
+    public UserAttendanceStatsDTO singlePassFromRecords() {
+        UserStatsAccumulator accumulator = new UserStatsAccumulator(startDate, endDate);
+        for (RollupDay day : toRollupDays(attendanceRecords, timeEntries)) {
+            accumulator.add(day);
+        }
+        return accumulator.toStats(1L, "Bench User");
+    }
+
+    @Benchmark
+    public UserAttendanceStatsDTO singlePass() {
+        UserStatsAccumulator accumulator = new UserStatsAccumulator(startDate, endDate);
+        for (RollupDay day : rollupDays) {
+            accumulator.add(day);
+        }
+        return accumulator.toStats(1L, "Bench User");
+    }
+
+    // Two halves folded separately and merged, as the sliced evaluation does
+    @Benchmark
+    public UserAttendanceStatsDTO singlePassMerged() {
+        int half = rollupDays.size() / 2;
+        UserStatsAccumulator left = new UserStatsAccumulator(startDate, endDate);
+        UserStatsAccumulator right = new UserStatsAccumulator(startDate, endDate);
+        for (int i = 0; i < half; i++) {
+            left.add(rollupDays.get(i));
+        }
+        for (int i = half; i < rollupDays.size(); i++) {
+            right.add(rollupDays.get(i));
+        }
+        return left.merge(right).toStats(1L, "Bench User");
+    }
+
+    // The statistics as AttendanceStatisticsService computed them before the accumulator:
+    // one stream per metric over the records, with distinct() over boxed dates
+    private static final class MultiPassStats {
+        static UserAttendanceStatsDTO compute(
+                Long userId,
+                String userName,
+                LocalDate startDate,
+                LocalDate endDate,
+                List<AttendanceRecord> attendanceRecords,
+                List<TimeEntry> timeEntries) {
+            return UserAttendanceStatsDTO.builder()
+                    .userId(userId)
+                    .userName(userName)
+                    .startDate(startDate)
+                    .endDate(endDate)
+                    .totalDays(ChronoUnit.DAYS.between(startDate, endDate) + 1)
+                    .presentDays(countPresentDays(attendanceRecords))
+                    .totalAttendanceHours(calculateTotalAttendanceHours(attendanceRecords))
+                    .totalTrackedHours(calculateTrackedHours(timeEntries))
+                    .averageCheckInTime(calculateAverageCheckInTime(attendanceRecords))
+                    .averageCheckOutTime(calculateAverageCheckOutTime(attendanceRecords))
+                    .averageWorkHours(calculateAverageWorkHours(attendanceRecords))
+                    .lateCheckIns((int) attendanceRecords.stream().filter(MultiPassStats::isLateCheckIn).count())
+                    .earlyCheckOuts((int) attendanceRecords.stream().filter(MultiPassStats::isEarlyCheckOut).count())
+                    .dailyStats(generateDailyStats(attendanceRecords, timeEntries))
+                    .build();
+        }
+
+        private static List<DailyStatsDTO> generateDailyStats(
+                List<AttendanceRecord> attendanceRecords, List<TimeEntry> timeEntries) {
+            Map<LocalDate, List<TimeEntry>> timeEntriesByDate = timeEntries.stream()
+                    .collect(Collectors.groupingBy(TimeEntry::getDate));
+
+            return attendanceRecords.stream()
+                    .map(record -> {
+                        LocalDate date = record.getCheckInTime().toLocalDate();
+                        return DailyStatsDTO.builder()
+                                .date(date)
+                                .checkInTime(record.getCheckInTime())
+                                .checkOutTime(record.getCheckOutTime())
+                                .attendanceHours(calculateAttendanceHours(record))
+                                .trackedHours(calculateTrackedHours(
+                                        timeEntriesByDate.getOrDefault(date, Collections.emptyList())))
+                                .status(record.getStatus())
+                                .isLateCheckIn(isLateCheckIn(record))
+                                .isEarlyCheckOut(isEarlyCheckOut(record))
+                                .build();
+                    })
+                    .collect(Collectors.toList());
+        }
+
+        private static long countPresentDays(List<AttendanceRecord> records) {
+            return records.stream()
+                    .filter(r -> r.getStatus() == AttendanceStatus.CHECKED_OUT)
+                    .map(r -> r.getCheckInTime().toLocalDate())
+                    .distinct()
+                    .count();
+        }
+
+        private static double calculateTotalAttendanceHours(List<AttendanceRecord> records) {
+            return records.stream()
+                    .filter(r -> r.getCheckOutTime() != null)
+                    .mapToDouble(MultiPassStats::calculateAttendanceHours)
+                    .sum();
+        }
+
+        private static double calculateTrackedHours(List<TimeEntry> entries) {
+            return entries.stream()
+                    .mapToDouble(TimeEntry::getHours)
+                    .sum();
+        }
+
+        private static LocalTime calculateAverageCheckInTime(List<AttendanceRecord> records) {
+            OptionalDouble avgMinutes = records.stream()
+                    .mapToDouble(r -> r.getCheckInTime().toLocalTime().toSecondOfDay() / 60.0)
+                    .average();
+            return avgMinutes.isPresent()
+                    ? LocalTime.ofSecondOfDay((long) (avgMinutes.getAsDouble() * 60))
+                    : null;
+        }
+
+        private static LocalTime calculateAverageCheckOutTime(List<AttendanceRecord> records) {
+            OptionalDouble avgMinutes = records.stream()
+                    .filter(r -> r.getCheckOutTime() != null)
+                    .mapToDouble(r -> r.getCheckOutTime().toLocalTime().toSecondOfDay() / 60.0)
+                    .average();
+            return avgMinutes.isPresent()
+                    ? LocalTime.ofSecondOfDay((long) (avgMinutes.getAsDouble() * 60))
+                    : null;
+        }
+
+        private static double calculateAverageWorkHours(List<AttendanceRecord> records) {
+            if (records.isEmpty()) {
+                return 0.0;
+            }
+            double totalHours = calculateTotalAttendanceHours(records);
+            long daysWithRecords = records.stream()
+                    .map(r -> r.getCheckInTime().toLocalDate())
+                    .distinct()
+                    .count();
+            return daysWithRecords > 0 ? totalHours / daysWithRecords : 0.0;
+        }
+
+        private static boolean isLateCheckIn(AttendanceRecord record) {
+            return record.getCheckInTime().toLocalTime().isAfter(LATE_AFTER);
+        }
+
+        private static boolean isEarlyCheckOut(AttendanceRecord record) {
+            return record.getCheckOutTime() != null && record.getCheckOutTime().toLocalTime().isBefore(EARLY_BEFORE);
+        }
+
+        private static double calculateAttendanceHours(AttendanceRecord record) {
+            if (record.getCheckInTime() == null || record.getCheckOutTime() == null) {
+                return 0.0;
+            }
+            return ChronoUnit.MINUTES.between(record.getCheckInTime(), record.getCheckOutTime()) / 60.0;
+        }
+    }
+}
@@ -2,9 +2,11 @@ package com.employee;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 // src/main/java/com/employee/EmployeeManagementApplication.java
 @SpringBootApplication
+@EnableScheduling
 public class EmployeeManagementApplication {
     public static void main(String[] args) {
         SpringApplication.run(EmployeeManagementApplication.class, args);
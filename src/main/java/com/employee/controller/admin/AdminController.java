@@ -3,23 +3,31 @@ package com.employee.controller.admin;
 import com.employee.dto.*;
 import com.employee.dto.auth.UpdateRoleRequest;
 import com.employee.dto.meeting.MeetingDTO;
+import com.employee.dto.period.ClosedPeriodDTO;
 import com.employee.dto.user.UserDTO;
 import com.employee.dto.user.UserStatisticsDTO;
+import com.employee.service.ExportJobService;
 import com.employee.service.ExportService;
 import com.employee.service.MeetingService;
+import com.employee.service.StatisticsResultCache;
 import com.employee.service.TimeEntryService;
+import com.employee.service.period.PeriodCloseService;
 import com.employee.service.user.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.security.Principal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -31,10 +39,16 @@ public class AdminController {
     private final TimeEntryService timeEntryService;
     private final MeetingService meetingService;
     private final ExportService exportService;
+    private final ExportJobService exportJobService;
+    private final PeriodCloseService periodCloseService;
+    private final StatisticsResultCache statisticsResultCache;
 
     @GetMapping("/users")
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<CursorPageDTO<UserDTO>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(userService.getAllUsers(cursor, limit));
     }
 
     @PutMapping("/users/{userId}/role")
@@ -62,21 +76,91 @@ public class AdminController {
         return ResponseEntity.ok(timeEntryService.getUserStatistics(userId, startDate, endDate));
     }
 
+    // Hit, miss and eviction counters of the user statistics cache, for sizing it
+    @GetMapping("/statistics-cache")
+    public ResponseEntity<List<StatisticsCacheStatsDTO>> getStatisticsCacheStats() {
+        return ResponseEntity.ok(statisticsResultCache.getStats());
+    }
+
+    @GetMapping("/periods")
+    public ResponseEntity<List<ClosedPeriodDTO>> getClosedPeriods() {
+        return ResponseEntity.ok(periodCloseService.getClosedPeriods());
+    }
+
+    // Freezes a past month (yyyy-MM) into snapshots; later time entries for it are rejected
+    @PostMapping("/periods/{month}/close")
+    public ResponseEntity<ClosedPeriodDTO> closePeriod(
+            @PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            Principal principal
+    ) {
+        return ResponseEntity.ok(periodCloseService.closePeriod(month, principal.getName()));
+    }
+
+    @DeleteMapping("/periods/{month}")
+    public ResponseEntity<Void> reopenPeriod(
+            @PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth month
+    ) {
+        periodCloseService.reopenPeriod(month);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/meetings")
-    public ResponseEntity<List<MeetingDTO>> getAllMeetings(
+    public ResponseEntity<CursorPageDTO<MeetingDTO>> getAllMeetings(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(meetingService.getAllMeetings(startDate, endDate, cursor, limit));
+    }
+
+    // Every user's time entries of the range in one response, streamed as they are read
+    @GetMapping(value = "/time-entries/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTimeEntries(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
     ) {
-        return ResponseEntity.ok(meetingService.getAllMeetings(startDate, endDate));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> timeEntryService.streamAllTimeEntries(startDate, endDate, out));
     }
 
+    // The workbook is written to the response as it is produced, never buffered as a whole
     @GetMapping("/export")
-    public ResponseEntity<ByteArrayResource> exportData(
+    public ResponseEntity<StreamingResponseBody> exportData(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
-    ) throws IOException {
-        byte[] report = exportService.generateReport(startDate, endDate);
-        ByteArrayResource resource = new ByteArrayResource(report);
+    ) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=employee_report.xlsx")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(out -> exportService.writeReport(startDate, endDate, out));
+    }
+
+    // Background export: submit returns the job at once; poll it, then download when COMPLETED
+    @PostMapping("/export-jobs")
+    public ResponseEntity<ExportJobDTO> submitExportJob(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            Principal principal
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(exportJobService.submit(startDate, endDate, principal.getName()));
+    }
+
+    @GetMapping("/export-jobs")
+    public ResponseEntity<List<ExportJobDTO>> getExportJobs() {
+        return ResponseEntity.ok(exportJobService.getJobs());
+    }
+
+    @GetMapping("/export-jobs/{jobId}")
+    public ResponseEntity<ExportJobDTO> getExportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(exportJobService.getJob(jobId));
+    }
+
+    @GetMapping("/export-jobs/{jobId}/download")
+    public ResponseEntity<Resource> downloadExport(@PathVariable String jobId) {
+        Resource resource = new FileSystemResource(exportJobService.getArtifact(jobId));
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=employee_report.xlsx")
@@ -1,25 +1,43 @@
 package com.employee.controller.attendance;
 
+import com.employee.dto.CursorPageDTO;
 import com.employee.dto.attendance.AttendanceRecordDTO;
 import com.employee.dto.attendance.AttendanceStatusDTO;
+import com.employee.dto.attendance.DroppedCheckInDTO;
+import com.employee.dto.attendance.GeofenceRejectionDTO;
+import com.employee.dto.checkin.BatchAttendanceRequest;
+import com.employee.dto.checkin.BatchAttendanceResponse;
 import com.employee.dto.checkin.CheckInRequest;
 import com.employee.dto.checkin.CheckOutRequest;
+import com.employee.dto.checkin.OfficeOccupancyDTO;
+import com.employee.service.attendance.AttendanceAutoCheckoutJob;
+import com.employee.service.attendance.AttendanceBatchService;
+import com.employee.service.attendance.AttendanceRollupService;
 import com.employee.service.attendance.AttendanceService;
+import com.employee.service.attendance.OfficePresenceStreamService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.security.Principal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/attendance")
 @RequiredArgsConstructor
 public class AttendanceController {
     private final AttendanceService attendanceService;
+    private final AttendanceBatchService attendanceBatchService;
+    private final AttendanceAutoCheckoutJob autoCheckoutJob;
+    private final OfficePresenceStreamService presenceStreamService;
+    private final AttendanceRollupService rollupService;
 
     @PostMapping("/check-in")
     public ResponseEntity<AttendanceRecordDTO> checkIn(
@@ -29,34 +47,80 @@ public class AttendanceController {
         return ResponseEntity.ok(attendanceService.checkIn(principal.getName(), request));
     }
 
+    // cursor is the nextCursor of the previous page; limit is capped by pagination.max-page-size
     @GetMapping("/history")
-    public ResponseEntity<List<AttendanceRecordDTO>> getHistory(
+    public ResponseEntity<CursorPageDTO<AttendanceRecordDTO>> getHistory(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             Principal principal
     ) {
         return ResponseEntity.ok(attendanceService.getHistory(
-                principal.getName(), startDate, endDate));
+                principal.getName(), startDate, endDate, cursor, limit));
     }
 
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AttendanceRecordDTO>> getAllAttendance(
+    public ResponseEntity<CursorPageDTO<AttendanceRecordDTO>> getAllAttendance(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(attendanceService.getAllAttendanceRecords(startDate, endDate, cursor, limit));
+    }
+
+    // Every record of the range in one response, streamed as it is read from the database
+    @GetMapping(value = "/admin/all/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllAttendance(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
     ) {
-        return ResponseEntity.ok(attendanceService.getAllAttendanceRecords(startDate, endDate));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> attendanceService.streamAllAttendanceRecords(startDate, endDate, out));
     }
 
     @GetMapping("/admin/office/{officeId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AttendanceRecordDTO>> getAttendanceByOffice(
+    public ResponseEntity<CursorPageDTO<AttendanceRecordDTO>> getAttendanceByOffice(
             @PathVariable Long officeId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
     ) {
         return ResponseEntity.ok(attendanceService.getAttendanceByOffice(
-                officeId, startDate, endDate));
+                officeId, startDate, endDate, cursor, limit));
+    }
+
+    @GetMapping("/admin/geofence-rejections")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<GeofenceRejectionDTO>> getGeofenceRejections(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        return ResponseEntity.ok(attendanceService.getGeofenceRejections(startDate, endDate));
+    }
+
+    @GetMapping("/admin/dropped-check-ins")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<DroppedCheckInDTO>> getDroppedCheckIns() {
+        return ResponseEntity.ok(attendanceService.getDroppedCheckIns());
+    }
+
+    @GetMapping("/admin/occupancy")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<OfficeOccupancyDTO>> getOfficeOccupancy() {
+        return ResponseEntity.ok(attendanceService.getOfficeOccupancy());
+    }
+
+    @GetMapping(value = "/admin/office/{officeId}/presence-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter streamOfficePresence(@PathVariable Long officeId) {
+        return presenceStreamService.subscribe(officeId);
     }
 
     @PostMapping("/check-out")
@@ -83,4 +147,30 @@ public class AttendanceController {
     ) {
         return ResponseEntity.ok(attendanceService.forceCheckOut(userId, request));
     }
-}
\ No newline at end of file
+
+    // Bulk check-in/check-out ingestion for badge readers and kiosks
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BatchAttendanceResponse> ingestBatch(
+            @RequestBody BatchAttendanceRequest request
+    ) {
+        return ResponseEntity.ok(attendanceBatchService.ingest(request));
+    }
+
+    // Runs the nightly auto check-out on demand
+    @PostMapping("/admin/auto-checkout")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> autoCheckOut() {
+        return ResponseEntity.ok(Map.of("closedRecords", autoCheckoutJob.closeStaleRecords()));
+    }
+
+    // Recomputes the daily rollups; without dates the whole history is rebuilt
+    @PostMapping("/admin/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> rebuildRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        return ResponseEntity.ok(Map.of("rollupRows", rollupService.rebuild(startDate, endDate)));
+    }
+}
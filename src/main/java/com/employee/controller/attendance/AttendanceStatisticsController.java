@@ -1,7 +1,12 @@
 package com.employee.controller.attendance;
 
 import com.employee.dto.DepartmentAttendanceStatsDTO;
+import com.employee.dto.attendance.AnalyticsGroupBy;
+import com.employee.dto.attendance.ArrivalDistributionDTO;
+import com.employee.dto.attendance.AttendanceAnalyticsRowDTO;
+import com.employee.dto.attendance.AttendanceStatsField;
 import com.employee.dto.user.UserAttendanceStatsDTO;
+import com.employee.model.attendance.AttendanceStatus;
 import com.employee.service.attendance.AttendanceStatisticsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -9,7 +14,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/attendance/stats")
@@ -26,12 +36,54 @@ public class AttendanceStatisticsController {
         return ResponseEntity.ok(statisticsService.getUserStats(userId, startDate, endDate));
     }
 
+    // summary leaves out the daily breakdown; fields picks the metric groups to compute;
+    // cursor/limit page through users in id order, nextCursor pointing at the following page
     @GetMapping("/department")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<DepartmentAttendanceStatsDTO> getDepartmentStats(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean summary,
+            @RequestParam(required = false) Set<AttendanceStatsField> fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        Set<AttendanceStatsField> requested = fields == null || fields.isEmpty()
+                ? EnumSet.allOf(AttendanceStatsField.class)
+                : EnumSet.copyOf(fields);
+        if (summary) {
+            requested.remove(AttendanceStatsField.DAILY);
+        }
+        return ResponseEntity.ok(statisticsService.getDepartmentStats(startDate, endDate, requested, cursor, limit));
+    }
+
+    // Ad-hoc attendance analytics; needs attendance.column-store.enabled
+    @GetMapping("/analytics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<AttendanceAnalyticsRowDTO>> getAnalytics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "NONE") AnalyticsGroupBy groupBy,
+            @RequestParam(required = false) List<Long> officeId,
+            @RequestParam(required = false) List<Long> userId,
+            @RequestParam(required = false) List<DayOfWeek> weekday,
+            @RequestParam(required = false) List<AttendanceStatus> status
+    ) {
+        return ResponseEntity.ok(statisticsService.getAnalytics(
+                startDate, endDate, groupBy, officeId, userId, weekday, status));
+    }
+
+    // Arrival and departure time distribution of one office, or of all offices without officeId
+    @GetMapping("/arrivals")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ArrivalDistributionDTO> getArrivalDistribution(
+            @RequestParam(required = false) Long officeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "09:00") @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime lateAfter,
+            @RequestParam(defaultValue = "17:00") @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime earlyBefore
     ) {
-        return ResponseEntity.ok(statisticsService.getDepartmentStats(startDate, endDate));
+        return ResponseEntity.ok(statisticsService.getArrivalDistribution(
+                officeId, startDate, endDate, lateAfter, earlyBefore));
     }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.employee.controller.timesheet;
 
+import com.employee.dto.CursorPageDTO;
+import com.employee.dto.timesheet.GraphBucket;
 import com.employee.dto.timesheet.TimeEntryAggregateDTO;
 import com.employee.dto.timesheet.TimeEntryDTO;
 import com.employee.dto.timesheet.TimeEntryRequest;
+import com.employee.dto.timesheet.WeeklyTimesheetRequest;
 import com.employee.service.TimeEntryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -28,6 +31,15 @@ public class TimeEntryController {
         return ResponseEntity.ok(timeEntryService.logTime(principal.getName(), request));
     }
 
+    // All entries of a week in one call; nothing is saved unless every entry is valid
+    @PostMapping("/week")
+    public ResponseEntity<List<TimeEntryDTO>> submitWeek(
+            @RequestBody WeeklyTimesheetRequest request,
+            Principal principal
+    ) {
+        return ResponseEntity.ok(timeEntryService.submitWeek(principal.getName(), request));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<TimeEntryDTO> updateTimeEntry(
             @PathVariable Long id,
@@ -38,22 +50,27 @@ public class TimeEntryController {
     }
 
     @GetMapping
-    public ResponseEntity<List<TimeEntryDTO>> getTimeEntries(
+    public ResponseEntity<CursorPageDTO<TimeEntryDTO>> getTimeEntries(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             Principal principal
     ) {
-        return ResponseEntity.ok(timeEntryService.getTimeEntries(principal.getName(), startDate, endDate));
+        return ResponseEntity.ok(timeEntryService.getTimeEntries(
+                principal.getName(), startDate, endDate, cursor, limit));
     }
 
+    // bucket is DAY, WEEK or MONTH; each point carries the start date of its bucket
     @GetMapping("/graph")
     public ResponseEntity<List<TimeEntryAggregateDTO>> getTimeEntriesForGraph(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "DAY") GraphBucket bucket,
             Principal principal
     ) {
         return ResponseEntity.ok(timeEntryService.getTimeEntriesForGraph(
-                principal.getName(), startDate, endDate));
+                principal.getName(), startDate, endDate, bucket));
     }
 
     @GetMapping("/monthly-total/{year}/{month}")
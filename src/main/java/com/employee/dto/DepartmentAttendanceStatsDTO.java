@@ -16,8 +16,11 @@ import java.util.List;
 public class DepartmentAttendanceStatsDTO {
     private LocalDate startDate;
     private LocalDate endDate;
-    private int totalEmployees;
-    private double averageAttendance;
-    private double averageWorkHours;
+    // Department-wide figures; left null on pages after the first
+    private Integer totalEmployees;
+    private Double averageAttendance;
+    private Double averageWorkHours;
     private List<UserAttendanceStatsDTO> userStats;
+    // Cursor of the next page of users; null on the last page and without pagination
+    private String nextCursor;
 }
\ No newline at end of file
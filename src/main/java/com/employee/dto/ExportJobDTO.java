@@ -0,0 +1,29 @@
+package com.employee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Status of a background report export; rowsWritten maps each sheet to its data rows so far
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJobDTO {
+    private String id;
+    private ExportJobStatus status;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String requestedBy;
+    private Map<String, Long> rowsWritten;
+    private Long fileSizeBytes;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,8 @@
+package com.employee.dto;
+
+public enum ExportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
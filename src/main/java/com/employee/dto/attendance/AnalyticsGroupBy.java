@@ -0,0 +1,9 @@
+package com.employee.dto.attendance;
+
+public enum AnalyticsGroupBy {
+    NONE,
+    OFFICE,
+    USER,
+    WEEKDAY,
+    DATE
+}
@@ -0,0 +1,34 @@
+package com.employee.dto.attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArrivalDistributionDTO {
+    // Null when the distribution covers all offices
+    private Long officeId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    private long checkIns;
+    private LocalTime checkInP50;
+    private LocalTime checkInP90;
+    private LocalTime checkInP99;
+    private LocalTime lateAfter;
+    private long lateCheckIns;
+
+    private long checkOuts;
+    private LocalTime checkOutP50;
+    private LocalTime checkOutP90;
+    private LocalTime checkOutP99;
+    private LocalTime earlyBefore;
+    private long earlyCheckOuts;
+}
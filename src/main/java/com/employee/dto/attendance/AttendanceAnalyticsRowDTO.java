@@ -0,0 +1,28 @@
+package com.employee.dto.attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// One group of an analytics query; only the field of the grouping dimension is set
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceAnalyticsRowDTO {
+    private Long officeId;
+    private Long userId;
+    private DayOfWeek weekday;
+    private LocalDate date;
+
+    private long records;
+    private long checkedOut;
+    private long attendanceMinutes;
+    private double averageAttendanceHours;
+    private LocalTime averageCheckIn;
+}
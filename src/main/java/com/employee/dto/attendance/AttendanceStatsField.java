@@ -0,0 +1,17 @@
+package com.employee.dto.attendance;
+
+// Metric groups of UserAttendanceStatsDTO that a statistics request can ask for
+public enum AttendanceStatsField {
+    // totalDays, presentDays
+    PRESENCE,
+    // totalAttendanceHours, averageWorkHours
+    HOURS,
+    // totalTrackedHours
+    TRACKED_HOURS,
+    // averageCheckInTime, lateCheckIns
+    CHECK_IN,
+    // averageCheckOutTime, earlyCheckOuts
+    CHECK_OUT,
+    // dailyStats
+    DAILY
+}
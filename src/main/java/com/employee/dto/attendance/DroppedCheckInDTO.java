@@ -0,0 +1,20 @@
+package com.employee.dto.attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A write-behind check-in that was acknowledged but lost to an existing record at flush time
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DroppedCheckInDTO {
+    private Long userId;
+    private Long officeId;
+    private LocalDateTime checkInTime;
+    private LocalDateTime droppedAt;
+}
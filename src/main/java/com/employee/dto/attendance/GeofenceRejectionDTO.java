@@ -0,0 +1,24 @@
+package com.employee.dto.attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeofenceRejectionDTO {
+    private String userName;
+    private String userEmail;
+    private LocalDate date;
+    private String nearestOfficeName;
+    private Double nearestDistanceMeters;
+    private Integer attemptCount;
+    private LocalDateTime firstAttemptAt;
+    private LocalDateTime lastAttemptAt;
+}
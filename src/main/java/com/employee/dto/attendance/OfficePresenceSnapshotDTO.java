@@ -0,0 +1,19 @@
+package com.employee.dto.attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfficePresenceSnapshotDTO {
+    private Long officeId;
+    private LocalDate date;
+    private List<PresenceEventDTO> present;
+}
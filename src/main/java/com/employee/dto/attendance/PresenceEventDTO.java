@@ -0,0 +1,22 @@
+package com.employee.dto.attendance;
+
+import com.employee.model.attendance.AttendanceTransition;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceEventDTO {
+    private AttendanceTransition type;
+    private Long userId;
+    private String userName;
+    private Long officeId;
+    private LocalDateTime checkInTime;
+    private LocalDateTime checkOutTime;
+}
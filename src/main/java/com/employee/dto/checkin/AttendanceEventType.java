@@ -0,0 +1,6 @@
+package com.employee.dto.checkin;
+
+public enum AttendanceEventType {
+    CHECK_IN,
+    CHECK_OUT
+}
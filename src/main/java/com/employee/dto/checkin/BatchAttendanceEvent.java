@@ -0,0 +1,22 @@
+package com.employee.dto.checkin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAttendanceEvent {
+    private Long userId;
+    private AttendanceEventType type;
+    private LocalDateTime timestamp; // Device time of the tap
+    private Double latitude;
+    private Double longitude;
+    private Long officeId; // Optional, resolved from the location when omitted
+    private String notes;
+}
@@ -0,0 +1,17 @@
+package com.employee.dto.checkin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAttendanceRequest {
+    private String deviceId;
+    private List<BatchAttendanceEvent> events;
+}
@@ -0,0 +1,18 @@
+package com.employee.dto.checkin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAttendanceResponse {
+    private int accepted;
+    private int rejected;
+    private List<BatchAttendanceResultDTO> results;
+}
@@ -0,0 +1,19 @@
+package com.employee.dto.checkin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAttendanceResultDTO {
+    private int index; // Position of the event in the request
+    private Long userId;
+    private AttendanceEventType type;
+    private boolean accepted;
+    private Long officeId;
+    private String message;
+}
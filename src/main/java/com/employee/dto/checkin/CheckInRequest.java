@@ -13,5 +13,5 @@ import lombok.NoArgsConstructor;
 public class CheckInRequest {
     private Double latitude;
     private Double longitude;
-    private Long officeId;
+    private Long officeId; // Optional, resolved from the location when omitted
 }
@@ -0,0 +1,17 @@
+package com.employee.dto.checkin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfficeOccupancyDTO {
+    private Long officeId;
+    private String officeName;
+    private int occupancy;
+    private Integer capacity;
+}
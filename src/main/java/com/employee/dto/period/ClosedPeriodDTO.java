@@ -0,0 +1,21 @@
+package com.employee.dto.period;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClosedPeriodDTO {
+    private String period;
+    private LocalDate periodStart;
+    private LocalDateTime closedAt;
+    private String closedBy;
+    private Integer snapshots;
+}
@@ -0,0 +1,8 @@
+package com.employee.dto.timesheet;
+
+// Width of one point of the time entry graph; values are PostgreSQL date_trunc fields
+public enum GraphBucket {
+    DAY,
+    WEEK,
+    MONTH
+}
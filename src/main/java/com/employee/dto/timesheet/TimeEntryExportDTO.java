@@ -0,0 +1,25 @@
+package com.employee.dto.timesheet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A time entry together with its owner, for admin exports across users
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeEntryExportDTO {
+    private Long id;
+    private Long userId;
+    private String userEmail;
+    private LocalDate date;
+    private Double hours;
+    private String description;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.employee.dto.timesheet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// A week of entries submitted at once; accepted or rejected as a whole
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeeklyTimesheetRequest {
+    private List<TimeEntryRequest> entries;
+}
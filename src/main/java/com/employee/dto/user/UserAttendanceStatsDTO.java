@@ -1,6 +1,7 @@
 package com.employee.dto.user;
 
 import com.employee.dto.DailyStatsDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,23 +11,26 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 
+// Metrics are boxed so the groups a request left out stay null and are not serialized,
+// rather than showing up as zeros
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserAttendanceStatsDTO {
     private Long userId;
     private String userName;
     private LocalDate startDate;
     private LocalDate endDate;
-    private long totalDays;
-    private long presentDays;
-    private double totalAttendanceHours;
-    private double totalTrackedHours;
+    private Long totalDays;
+    private Long presentDays;
+    private Double totalAttendanceHours;
+    private Double totalTrackedHours;
     private LocalTime averageCheckInTime;
     private LocalTime averageCheckOutTime;
-    private double averageWorkHours;
-    private int lateCheckIns;
-    private int earlyCheckOuts;
+    private Double averageWorkHours;
+    private Integer lateCheckIns;
+    private Integer earlyCheckOuts;
     private List<DailyStatsDTO> dailyStats;
 }
\ No newline at end of file
@@ -8,7 +8,7 @@ import java.time.LocalDate;
 
 // dto/UserDTO.java
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class UserDTO {
     private Long id;
     private String email;
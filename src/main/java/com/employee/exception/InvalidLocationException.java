@@ -1,14 +1,15 @@
 package com.employee.exception;
 
 public class InvalidLocationException extends RuntimeException {
-    private final Long recordId;
+    private final Double distanceMeters;
 
-    public InvalidLocationException(String message, Long recordId) {
+    public InvalidLocationException(String message, Double distanceMeters) {
         super(message);
-        this.recordId = recordId;
+        this.distanceMeters = distanceMeters;
     }
 
-    public Long getRecordId() {
-        return recordId;
+    // Distance to the nearest active office, if any
+    public Double getDistanceMeters() {
+        return distanceMeters;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.employee.model.attendance;
+
+import com.employee.model.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Per-user, per-day summary of attendance records and logged time, kept in step with the
+// raw tables by AttendanceRollupService. Sums rather than averages are stored so that days
+// can be combined into any range.
+@Entity
+@Table(
+        name = "attendance_daily_rollups",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_attendance_daily_rollups_user_work_date",
+                columnNames = {"user_id", "work_date"}
+        ),
+        // Department reads and totals scan a date range across all users
+        indexes = @Index(name = "idx_attendance_daily_rollups_work_date", columnList = "work_date")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @Column(name = "work_date")
+    private LocalDate workDate;
+
+    // Attendance records with a check-in on this day; zero for days with logged time only
+    private Integer recordCount;
+
+    // At least one record of the day is checked out
+    private Boolean present;
+
+    // Status of the latest record of the day
+    @Enumerated(EnumType.STRING)
+    private AttendanceStatus status;
+
+    private LocalDateTime firstCheckIn;
+    private LocalDateTime lastCheckOut;
+    private Long attendanceMinutes;
+    private Long checkInSecondsSum;
+    private Integer checkOutCount;
+    private Long checkOutSecondsSum;
+    private Integer lateCheckIns;
+    private Integer earlyCheckOuts;
+    private Double trackedHours;
+    private Integer entryCount;
+    private LocalDateTime updatedAt;
+}
@@ -8,10 +8,25 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "attendance_records")
+@Table(
+        name = "attendance_records",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_attendance_records_user_work_date",
+                columnNames = {"user_id", "work_date"}
+        ),
+        indexes = {
+                // Recomputing the minute histograms of an office day reads that day's records of the office;
+                // also serves the per-office keyset pages
+                @Index(name = "idx_attendance_records_office_check_in", columnList = "office_id, check_in_time"),
+                // Keyset pages of the history and admin lists, ordered by (check_in_time, id)
+                @Index(name = "idx_attendance_records_user_check_in_id", columnList = "user_id, check_in_time, id"),
+                @Index(name = "idx_attendance_records_check_in_id", columnList = "check_in_time, id")
+        }
+)
 @Data
 @Builder
 @NoArgsConstructor
@@ -29,6 +44,11 @@ public class AttendanceRecord {
     @JoinColumn(name = "office_id")
     private OfficeLocation office;
 
+    // Day the attendance counts for; one record per user and work date.
+    // Left null for rejected check-in attempts so they never block a valid check-in.
+    @Column(name = "work_date")
+    private LocalDate workDate;
+
     private LocalDateTime checkInTime;
     private LocalDateTime checkOutTime;
 
@@ -0,0 +1,9 @@
+package com.employee.model.attendance;
+
+public enum AttendanceTransition {
+    CHECKED_IN,
+    CHECKED_OUT,
+    FORCE_CHECKED_OUT,
+    // An acknowledged write-behind check-in turned out to conflict with an existing record
+    CHECK_IN_REVOKED
+}
@@ -0,0 +1,48 @@
+package com.employee.model.attendance;
+
+import com.employee.model.checkin.OfficeLocation;
+import com.employee.model.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Per-user, per-day summary of check-in attempts rejected by the office geofence
+@Entity
+@Table(
+        name = "geofence_rejections",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_geofence_rejections_user_work_date",
+                columnNames = {"user_id", "work_date"}
+        )
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeofenceRejection {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    // Office nearest to the closest attempt
+    @ManyToOne
+    @JoinColumn(name = "office_id")
+    private OfficeLocation office;
+
+    @Column(name = "work_date")
+    private LocalDate workDate;
+
+    private LocalDateTime firstAttemptAt;
+    private LocalDateTime lastAttemptAt;
+    private Integer attemptCount;
+    private Double nearestDistanceMeters;
+}
@@ -0,0 +1,58 @@
+package com.employee.model.attendance;
+
+import com.employee.model.checkin.OfficeLocation;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Per-office, per-day distribution of check-in and check-out times over the 1440 minutes of
+// the day, kept in step with attendance_records by adding each check-in and check-out as it is
+// written. Only the non-empty minutes are stored, as parallel arrays of minute-of-day and count
+// in no particular order, so a day takes a few hundred bytes and days or offices are merged by
+// adding counts.
+@Entity
+@Table(
+        name = "office_minute_histograms",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_office_minute_histograms_office_work_date",
+                columnNames = {"office_id", "work_date"}
+        )
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfficeMinuteHistogram {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "office_id")
+    private OfficeLocation office;
+
+    // Day of the check-in; check-outs are counted on the day of their check-in
+    @Column(name = "work_date")
+    private LocalDate workDate;
+
+    @Column(columnDefinition = "integer[]")
+    private int[] checkInMinutes;
+
+    @Column(columnDefinition = "integer[]")
+    private int[] checkInCounts;
+
+    @Column(columnDefinition = "integer[]")
+    private int[] checkOutMinutes;
+
+    @Column(columnDefinition = "integer[]")
+    private int[] checkOutCounts;
+
+    private Integer checkIns;
+    private Integer checkOuts;
+    private LocalDateTime updatedAt;
+}
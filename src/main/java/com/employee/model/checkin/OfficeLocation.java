@@ -29,6 +29,9 @@ public class OfficeLocation {
     // Radius in meters within which check-in is allowed
     private Double allowedRadius;
 
+    // Maximum number of people checked in at once, null for no limit
+    private Integer capacity;
+
     private Boolean isActive;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
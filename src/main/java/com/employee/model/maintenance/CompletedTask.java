@@ -0,0 +1,25 @@
+package com.employee.model.maintenance;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One-off data maintenance that has finished and must not run again, keyed by task name
+@Entity
+@Table(name = "completed_tasks")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompletedTask {
+    @Id
+    private String name;
+
+    private LocalDateTime completedAt;
+}
@@ -12,7 +12,11 @@ import java.util.Set;
 
 // model/Meeting.java
 @Entity
-@Table(name = "meetings")
+@Table(
+        name = "meetings",
+        // Keyset pages of the admin list, ordered by (start_time, id)
+        indexes = @Index(name = "idx_meetings_start_time_id", columnList = "start_time, id")
+)
 @Data
 @Builder
 @NoArgsConstructor
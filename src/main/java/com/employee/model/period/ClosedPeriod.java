@@ -0,0 +1,36 @@
+package com.employee.model.period;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A month whose attendance and time entries are frozen into period snapshots
+@Entity
+@Table(
+        name = "closed_periods",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_closed_periods_period_start",
+                columnNames = {"period_start"}
+        )
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClosedPeriod {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // First day of the closed month
+    @Column(name = "period_start")
+    private LocalDate periodStart;
+
+    private LocalDateTime closedAt;
+    private String closedBy;
+}
@@ -0,0 +1,52 @@
+package com.employee.model.period;
+
+import com.employee.model.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Frozen per-user totals of a closed month. The scalar columns answer summary queries
+// directly; days holds the month's daily rollup rows in a packed binary form for the
+// reports that need a per-day breakdown.
+@Entity
+@Table(
+        name = "period_snapshots",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_period_snapshots_user_period_start",
+                columnNames = {"user_id", "period_start"}
+        )
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @Column(name = "period_start")
+    private LocalDate periodStart;
+
+    private Integer presentDays;
+    private Integer recordDays;
+    private Long attendanceMinutes;
+    private Integer lateCheckIns;
+    private Integer earlyCheckOuts;
+    private Double trackedHours;
+    private Integer entryCount;
+    private Integer entryDays;
+
+    private byte[] days;
+
+    private LocalDateTime createdAt;
+}
@@ -11,7 +11,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "time_entries")
+@Table(
+        name = "time_entries",
+        indexes = {
+                @Index(name = "idx_time_entries_date", columnList = "date"),
+                // Keyset pages of a user's entries, ordered by (date, id)
+                @Index(name = "idx_time_entries_user_date_id", columnList = "user_id, date, id")
+        }
+)
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,380 @@
+package com.employee.repository;
+
+import com.employee.model.attendance.AttendanceStatus;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Plain JDBC access to attendance_records for paths where per-entity JPA saves
+// (IDENTITY ids, read-then-write, one round trip per row) are too expensive or racy.
+// Check-ins rely on the unique (user_id, work_date) constraint instead of a prior lookup.
+@Repository
+@RequiredArgsConstructor
+public class AttendanceRecordJdbcRepository {
+    private static final int BATCH_SIZE = 500;
+    private static final int INSERT_CHUNK_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // Valid (non-rejected) records of the given users with a check-in in [from, to)
+    public List<DayRecord> findDayRecords(Collection<Long> userIds, LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userIds", userIds)
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("invalid", AttendanceStatus.INVALID_LOCATION.name());
+
+        return namedParameterJdbcTemplate.query("""
+                        SELECT id, user_id, office_id, status, check_in_time, check_out_time
+                        FROM attendance_records
+                        WHERE user_id IN (:userIds)
+                          AND check_in_time >= :from AND check_in_time < :to
+                          AND status <> :invalid
+                        """,
+                params,
+                (rs, rowNum) -> DayRecord.builder()
+                        .id(rs.getLong("id"))
+                        .userId(rs.getLong("user_id"))
+                        .officeId(rs.getObject("office_id", Long.class))
+                        .status(AttendanceStatus.valueOf(rs.getString("status")))
+                        .checkInTime(rs.getObject("check_in_time", LocalDateTime.class))
+                        .checkOutTime(rs.getObject("check_out_time", LocalDateTime.class))
+                        .build());
+    }
+
+    // Streams every record with a check-in, rejected ones included. Rows are fetched in pages
+    // of fetchSize, which the PostgreSQL driver only does inside a transaction.
+    public void forEachRecord(int fetchSize, Consumer<DayRecord> consumer) {
+        jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement("""
+                            SELECT id, user_id, office_id, status, check_in_time, check_out_time
+                            FROM attendance_records
+                            WHERE check_in_time IS NOT NULL
+                            """);
+                    ps.setFetchSize(fetchSize);
+                    return ps;
+                },
+                rs -> {
+                    consumer.accept(mapDayRecord(rs));
+                });
+    }
+
+    // Every record, rejected ones included, whose check-in falls on one of the given user days
+    public void forEachRecordOfDays(Collection<DayKey> keys, Consumer<DayRecord> consumer) {
+        List<DayKey> distinct = new ArrayList<>(new HashSet<>(keys));
+        for (int from = 0; from < distinct.size(); from += INSERT_CHUNK_SIZE) {
+            List<DayKey> chunk = distinct.subList(from, Math.min(from + INSERT_CHUNK_SIZE, distinct.size()));
+
+            List<Object[]> tuples = new ArrayList<>(chunk.size());
+            Set<Long> userIds = new HashSet<>();
+            LocalDate first = null;
+            LocalDate last = null;
+            for (DayKey key : chunk) {
+                tuples.add(new Object[]{key.getUserId(), key.getWorkDate()});
+                userIds.add(key.getUserId());
+                first = first == null || key.getWorkDate().isBefore(first) ? key.getWorkDate() : first;
+                last = last == null || key.getWorkDate().isAfter(last) ? key.getWorkDate() : last;
+            }
+
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("keys", tuples)
+                    .addValue("userIds", userIds)
+                    .addValue("from", first.atStartOfDay())
+                    .addValue("to", last.plusDays(1).atStartOfDay());
+
+            namedParameterJdbcTemplate.query("""
+                            SELECT id, user_id, office_id, status, check_in_time, check_out_time
+                            FROM attendance_records r
+                            WHERE r.user_id IN (:userIds)
+                              AND r.check_in_time >= :from AND r.check_in_time < :to
+                              AND (r.user_id, CAST(r.check_in_time AS date)) IN (:keys)
+                            """,
+                    params,
+                    rs -> {
+                        consumer.accept(mapDayRecord(rs));
+                    });
+        }
+    }
+
+    // Single round-trip check-in. On a conflict with an existing record for the same user and
+    // work date the existing row is returned instead; xmax = 0 tells the two cases apart.
+    public CheckInOutcome insertCheckIn(CheckInRow row) {
+        return jdbcTemplate.queryForObject("""
+                        INSERT INTO attendance_records
+                            (user_id, office_id, work_date, check_in_time,
+                             check_in_latitude, check_in_longitude, status)
+                        VALUES (?, ?, ?, ?, ?, ?, ?)
+                        ON CONFLICT (user_id, work_date) DO UPDATE SET work_date = EXCLUDED.work_date
+                        RETURNING id, office_id, status, check_in_time, check_out_time, (xmax = 0) AS inserted
+                        """,
+                (rs, rowNum) -> CheckInOutcome.builder()
+                        .inserted(rs.getBoolean("inserted"))
+                        .record(DayRecord.builder()
+                                .id(rs.getLong("id"))
+                                .userId(row.getUserId())
+                                .officeId(rs.getObject("office_id", Long.class))
+                                .status(AttendanceStatus.valueOf(rs.getString("status")))
+                                .checkInTime(rs.getObject("check_in_time", LocalDateTime.class))
+                                .checkOutTime(rs.getObject("check_out_time", LocalDateTime.class))
+                                .build())
+                        .build(),
+                row.getUserId(),
+                row.getOfficeId(),
+                row.getCheckInTime().toLocalDate(),
+                row.getCheckInTime(),
+                row.getLatitude(),
+                row.getLongitude(),
+                AttendanceStatus.CHECKED_IN.name());
+    }
+
+    // Multi-row check-in insert; rows conflicting with an existing record for the same user and
+    // work date are skipped. Returns the (user, work date) keys that were actually inserted.
+    public Set<DayKey> insertCheckIns(List<CheckInRow> rows) {
+        Set<DayKey> inserted = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += INSERT_CHUNK_SIZE) {
+            List<CheckInRow> chunk = rows.subList(from, Math.min(from + INSERT_CHUNK_SIZE, rows.size()));
+
+            Long[] userIds = new Long[chunk.size()];
+            Long[] officeIds = new Long[chunk.size()];
+            Timestamp[] checkInTimes = new Timestamp[chunk.size()];
+            Double[] latitudes = new Double[chunk.size()];
+            Double[] longitudes = new Double[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                CheckInRow row = chunk.get(i);
+                userIds[i] = row.getUserId();
+                officeIds[i] = row.getOfficeId();
+                checkInTimes[i] = Timestamp.valueOf(row.getCheckInTime());
+                latitudes[i] = row.getLatitude();
+                longitudes[i] = row.getLongitude();
+            }
+
+            jdbcTemplate.query(con -> {
+                        PreparedStatement ps = con.prepareStatement("""
+                                INSERT INTO attendance_records
+                                    (user_id, office_id, work_date, check_in_time,
+                                     check_in_latitude, check_in_longitude, status)
+                                SELECT t.user_id, t.office_id, t.check_in_time::date, t.check_in_time,
+                                       t.latitude, t.longitude, ?
+                                FROM unnest(?::bigint[], ?::bigint[], ?::timestamp[], ?::float8[], ?::float8[])
+                                    AS t(user_id, office_id, check_in_time, latitude, longitude)
+                                ON CONFLICT (user_id, work_date) DO NOTHING
+                                RETURNING user_id, work_date
+                                """);
+                        ps.setString(1, AttendanceStatus.CHECKED_IN.name());
+                        ps.setArray(2, con.createArrayOf("bigint", userIds));
+                        ps.setArray(3, con.createArrayOf("bigint", officeIds));
+                        ps.setArray(4, con.createArrayOf("timestamp", checkInTimes));
+                        ps.setArray(5, con.createArrayOf("float8", latitudes));
+                        ps.setArray(6, con.createArrayOf("float8", longitudes));
+                        return ps;
+                    },
+                    rs -> {
+                        inserted.add(new DayKey(rs.getLong("user_id"), rs.getObject("work_date", LocalDate.class)));
+                    });
+        }
+        return inserted;
+    }
+
+    // Locks the record for a check-out if it is still checked in. A concurrent check-out holding
+    // the lock makes this wait and then re-check the committed status, so only one of them wins.
+    public boolean lockOpenRecord(long recordId) {
+        return !jdbcTemplate.queryForList(
+                        "SELECT id FROM attendance_records WHERE id = ? AND status = ? FOR UPDATE",
+                        Long.class,
+                        recordId,
+                        AttendanceStatus.CHECKED_IN.name())
+                .isEmpty();
+    }
+
+    // Closes the open record of each row's user and work date; returns the update count per row
+    public int[] batchApplyCheckOuts(List<CheckOutRow> rows) {
+        int[][] counts = jdbcTemplate.batchUpdate("""
+                        UPDATE attendance_records
+                        SET check_out_time = ?, check_out_latitude = ?, check_out_longitude = ?,
+                            status = ?, notes = ?
+                        WHERE user_id = ? AND work_date = ? AND status = ?
+                        """,
+                rows,
+                BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setObject(1, row.getCheckOutTime());
+                    setNullableDouble(ps, 2, row.getLatitude());
+                    setNullableDouble(ps, 3, row.getLongitude());
+                    ps.setString(4, AttendanceStatus.CHECKED_OUT.name());
+                    ps.setString(5, row.getNotes());
+                    ps.setLong(6, row.getUserId());
+                    ps.setObject(7, row.getWorkDate());
+                    ps.setString(8, AttendanceStatus.CHECKED_IN.name());
+                });
+
+        int[] flattened = new int[rows.size()];
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                flattened[i++] = count;
+            }
+        }
+        return flattened;
+    }
+
+    // Closes every record left checked in before the given time, assuming a standard workday.
+    // Returns the closed records.
+    public List<ClosedRecord> autoCheckOutStaleRecords(LocalDateTime before, int workdayMinutes) {
+        return jdbcTemplate.query("""
+                        UPDATE attendance_records
+                        SET check_out_time = check_in_time + make_interval(mins => ?),
+                            check_out_latitude = check_in_latitude,
+                            check_out_longitude = check_in_longitude,
+                            status = ?
+                        WHERE status = ? AND check_in_time < ?
+                        RETURNING user_id, office_id, check_in_time, check_out_time
+                        """,
+                (rs, rowNum) -> new ClosedRecord(
+                        rs.getLong("user_id"),
+                        rs.getObject("office_id", Long.class),
+                        rs.getObject("check_in_time", LocalDateTime.class),
+                        rs.getObject("check_out_time", LocalDateTime.class)),
+                workdayMinutes,
+                AttendanceStatus.CHECKED_OUT.name(),
+                AttendanceStatus.CHECKED_IN.name(),
+                before);
+    }
+
+    // Open (checked in, not yet checked out) records of the work date per office
+    public Map<Long, Integer> countOpenCheckInsByOffice(LocalDate workDate) {
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbcTemplate.query("""
+                        SELECT office_id, COUNT(*) AS open_records
+                        FROM attendance_records
+                        WHERE status = ? AND work_date = ? AND office_id IS NOT NULL
+                        GROUP BY office_id
+                        """,
+                rs -> {
+                    counts.put(rs.getLong("office_id"), rs.getInt("open_records"));
+                },
+                AttendanceStatus.CHECKED_IN.name(),
+                workDate);
+        return counts;
+    }
+
+    // Populates work_date on records created before the column existed. Only the first valid
+    // record of a user and day gets a work date, so the unique constraint cannot be violated.
+    public int backfillWorkDates() {
+        return jdbcTemplate.update("""
+                UPDATE attendance_records r
+                SET work_date = CAST(r.check_in_time AS date)
+                WHERE r.work_date IS NULL
+                  AND r.status <> ?
+                  AND r.id = (
+                      SELECT MIN(d.id) FROM attendance_records d
+                      WHERE d.user_id = r.user_id
+                        AND CAST(d.check_in_time AS date) = CAST(r.check_in_time AS date)
+                        AND d.status <> ?
+                  )
+                  AND NOT EXISTS (
+                      SELECT 1 FROM attendance_records e
+                      WHERE e.user_id = r.user_id AND e.work_date = CAST(r.check_in_time AS date)
+                  )
+                """,
+                AttendanceStatus.INVALID_LOCATION.name(),
+                AttendanceStatus.INVALID_LOCATION.name());
+    }
+
+    private static DayRecord mapDayRecord(ResultSet rs) throws SQLException {
+        return DayRecord.builder()
+                .id(rs.getLong("id"))
+                .userId(rs.getLong("user_id"))
+                .officeId(rs.getObject("office_id", Long.class))
+                .status(AttendanceStatus.valueOf(rs.getString("status")))
+                .checkInTime(rs.getObject("check_in_time", LocalDateTime.class))
+                .checkOutTime(rs.getObject("check_out_time", LocalDateTime.class))
+                .build();
+    }
+
+    private static void setNullableDouble(PreparedStatement ps, int index, Double value)
+            throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+
+    @Value
+    public static class DayKey {
+        long userId;
+        LocalDate workDate;
+    }
+
+    @Value
+    @Builder
+    public static class DayRecord {
+        long id;
+        long userId;
+        Long officeId;
+        AttendanceStatus status;
+        LocalDateTime checkInTime;
+        LocalDateTime checkOutTime;
+    }
+
+    @Value
+    public static class ClosedRecord {
+        long userId;
+        Long officeId;
+        LocalDateTime checkInTime;
+        LocalDateTime checkOutTime;
+
+        public LocalDate getCheckInDate() {
+            return checkInTime.toLocalDate();
+        }
+    }
+
+    @Value
+    @Builder
+    public static class CheckInOutcome {
+        boolean inserted;
+        DayRecord record;
+    }
+
+    @Value
+    @Builder
+    public static class CheckInRow {
+        long userId;
+        long officeId;
+        LocalDateTime checkInTime;
+        double latitude;
+        double longitude;
+    }
+
+    @Value
+    @Builder
+    public static class CheckOutRow {
+        long userId;
+        LocalDate workDate;
+        LocalDateTime checkOutTime;
+        Double latitude;
+        Double longitude;
+        String notes;
+    }
+}
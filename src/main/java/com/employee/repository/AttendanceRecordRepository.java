@@ -3,52 +3,92 @@ package com.employee.repository;
 
 import com.employee.model.attendance.AttendanceRecord;
 import com.employee.model.attendance.AttendanceStatus;
-import com.employee.model.checkin.OfficeLocation;
 import com.employee.model.user.User;
+import com.employee.repository.projection.PresentUserView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttendanceRecordRepository extends JpaRepository<AttendanceRecord, Long> {
-    List<AttendanceRecord> findByUserAndCheckInTimeBetweenOrderByCheckInTimeDesc(
-            User user,
-            LocalDateTime startDate,
-            LocalDateTime endDate
+    // Keyset pages, newest check-in first: rows from startTime on that sort strictly after
+    // (afterTime, afterId). The first page passes the end of the range and Long.MAX_VALUE.
+    @Query("SELECT r FROM AttendanceRecord r JOIN FETCH r.user LEFT JOIN FETCH r.office " +
+            "WHERE r.user.id = :userId AND r.checkInTime >= :startTime " +
+            "AND (r.checkInTime < :afterTime OR (r.checkInTime = :afterTime AND r.id < :afterId)) " +
+            "ORDER BY r.checkInTime DESC, r.id DESC")
+    List<AttendanceRecord> findUserPage(
+            @Param("userId") Long userId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Pageable pageable
     );
 
-    List<AttendanceRecord> findByCheckInTimeBetweenOrderByCheckInTimeDesc(
-            LocalDateTime startDate,
-            LocalDateTime endDate
+    @Query("SELECT r FROM AttendanceRecord r JOIN FETCH r.user LEFT JOIN FETCH r.office " +
+            "WHERE r.checkInTime >= :startTime " +
+            "AND (r.checkInTime < :afterTime OR (r.checkInTime = :afterTime AND r.id < :afterId)) " +
+            "ORDER BY r.checkInTime DESC, r.id DESC")
+    List<AttendanceRecord> findPage(
+            @Param("startTime") LocalDateTime startTime,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Pageable pageable
     );
 
-    List<AttendanceRecord> findByOfficeAndCheckInTimeBetweenOrderByCheckInTimeDesc(
-            OfficeLocation office,
-            LocalDateTime startDate,
-            LocalDateTime endDate
+    @Query("SELECT r FROM AttendanceRecord r JOIN FETCH r.user LEFT JOIN FETCH r.office " +
+            "WHERE r.office.id = :officeId AND r.checkInTime >= :startTime " +
+            "AND (r.checkInTime < :afterTime OR (r.checkInTime = :afterTime AND r.id < :afterId)) " +
+            "ORDER BY r.checkInTime DESC, r.id DESC")
+    List<AttendanceRecord> findOfficePage(
+            @Param("officeId") Long officeId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Pageable pageable
     );
 
-    // Add this method for checking if user already checked in
-    Optional<AttendanceRecord> findByUserAndCheckInTimeBetween(
-            User user,
-            LocalDateTime startTime,
-            LocalDateTime endTime
+    // Whole range for streaming exports; must be consumed and closed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM AttendanceRecord r JOIN FETCH r.user LEFT JOIN FETCH r.office " +
+            "WHERE r.checkInTime BETWEEN :startTime AND :endTime " +
+            "ORDER BY r.checkInTime DESC, r.id DESC")
+    Stream<AttendanceRecord> streamByCheckInTimeBetween(
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
     );
 
-    // Additional useful method for finding latest attendance record
-    Optional<AttendanceRecord> findFirstByUserOrderByCheckInTimeDesc(User user);
+    // A user has at most one record per work date (unique constraint)
+    Optional<AttendanceRecord> findByUserIdAndWorkDate(Long userId, LocalDate workDate);
 
-    // Find unchecked-out records
-    Optional<AttendanceRecord> findByUserAndStatusAndCheckInTimeBetween(
-            User user,
-            AttendanceStatus status,
-            LocalDateTime startTime,
-            LocalDateTime endTime
+    // Who is in an office on a day, read in one query without loading the records or their users
+    @Query("SELECT u.id AS userId, u.firstName AS firstName, u.lastName AS lastName, " +
+            "r.checkInTime AS checkInTime FROM AttendanceRecord r JOIN r.user u " +
+            "WHERE r.office.id = :officeId AND r.workDate = :workDate AND r.status = :status " +
+            "ORDER BY r.checkInTime")
+    List<PresentUserView> findPresentUsers(
+            @Param("officeId") Long officeId,
+            @Param("workDate") LocalDate workDate,
+            @Param("status") AttendanceStatus status
     );
 
+    // Additional useful method for finding latest attendance record
+    Optional<AttendanceRecord> findFirstByUserOrderByCheckInTimeDesc(User user);
+
     Optional<AttendanceRecord> findFirstByUserAndStatusOrderByCheckInTimeDesc(
             User user,
             AttendanceStatus status
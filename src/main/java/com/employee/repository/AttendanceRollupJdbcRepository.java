@@ -0,0 +1,362 @@
+package com.employee.repository;
+
+import com.employee.model.attendance.AttendanceStatus;
+import com.employee.repository.AttendanceRecordJdbcRepository.CheckInRow;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayKey;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Maintenance of attendance_daily_rollups and office_minute_histograms. Rollup rows in scope are
+// recomputed from attendance_records and time_entries with one INSERT ... SELECT, so a refresh
+// is idempotent; the upsert settles two refreshes of the same day racing each other. Histograms
+// are only recomputed by a rebuild; writers add their events to them in place instead.
+@Repository
+@RequiredArgsConstructor
+public class AttendanceRollupJdbcRepository {
+    private static final int KEY_CHUNK_SIZE = 5000;
+    private static final LocalTime LATE_AFTER = LocalTime.of(9, 0);
+
+    // Late is after 09:00 and early is before 17:00, as in the statistics
+    private static final String UPSERT = """
+            INSERT INTO attendance_daily_rollups
+                (user_id, work_date, record_count, present, status, first_check_in, last_check_out,
+                 attendance_minutes, check_in_seconds_sum, check_out_count, check_out_seconds_sum,
+                 late_check_ins, early_check_outs, tracked_hours, entry_count, updated_at)
+            SELECT COALESCE(a.user_id, t.user_id),
+                   COALESCE(a.day, t.day),
+                   COALESCE(a.record_count, 0),
+                   COALESCE(a.present, FALSE),
+                   a.status,
+                   a.first_check_in,
+                   a.last_check_out,
+                   COALESCE(a.attendance_minutes, 0),
+                   COALESCE(a.check_in_seconds_sum, 0),
+                   COALESCE(a.check_out_count, 0),
+                   COALESCE(a.check_out_seconds_sum, 0),
+                   COALESCE(a.late_check_ins, 0),
+                   COALESCE(a.early_check_outs, 0),
+                   COALESCE(t.hours, 0),
+                   COALESCE(t.entries, 0),
+                   now()
+            FROM (
+                SELECT r.user_id,
+                       CAST(r.check_in_time AS date) AS day,
+                       COUNT(*) AS record_count,
+                       BOOL_OR(r.status = :checkedOut) AS present,
+                       (ARRAY_AGG(r.status ORDER BY r.check_in_time DESC, r.id DESC))[1] AS status,
+                       MIN(r.check_in_time) AS first_check_in,
+                       MAX(r.check_out_time) AS last_check_out,
+                       COALESCE(SUM(TRUNC(EXTRACT(EPOCH FROM (r.check_out_time - r.check_in_time)) / 60))
+                           FILTER (WHERE r.check_out_time IS NOT NULL), 0) AS attendance_minutes,
+                       SUM(FLOOR(EXTRACT(EPOCH FROM CAST(r.check_in_time AS time)))) AS check_in_seconds_sum,
+                       COUNT(r.check_out_time) AS check_out_count,
+                       COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM CAST(r.check_out_time AS time)))), 0)
+                           AS check_out_seconds_sum,
+                       COUNT(*) FILTER (WHERE CAST(r.check_in_time AS time) > TIME '09:00') AS late_check_ins,
+                       COUNT(*) FILTER (WHERE CAST(r.check_out_time AS time) < TIME '17:00') AS early_check_outs
+                FROM attendance_records r
+                WHERE %s
+                GROUP BY r.user_id, CAST(r.check_in_time AS date)
+            ) a
+            FULL OUTER JOIN (
+                SELECT t.user_id, t.date AS day, SUM(t.hours) AS hours, COUNT(*) AS entries
+                FROM time_entries t
+                WHERE %s
+                GROUP BY t.user_id, t.date
+            ) t ON t.user_id = a.user_id AND t.day = a.day
+            ON CONFLICT (user_id, work_date) DO UPDATE SET
+                record_count = EXCLUDED.record_count,
+                present = EXCLUDED.present,
+                status = EXCLUDED.status,
+                first_check_in = EXCLUDED.first_check_in,
+                last_check_out = EXCLUDED.last_check_out,
+                attendance_minutes = EXCLUDED.attendance_minutes,
+                check_in_seconds_sum = EXCLUDED.check_in_seconds_sum,
+                check_out_count = EXCLUDED.check_out_count,
+                check_out_seconds_sum = EXCLUDED.check_out_seconds_sum,
+                late_check_ins = EXCLUDED.late_check_ins,
+                early_check_outs = EXCLUDED.early_check_outs,
+                tracked_hours = EXCLUDED.tracked_hours,
+                entry_count = EXCLUDED.entry_count,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    // Office days are those of the records in scope; each one is recomputed in full from the
+    // office's records of that day, with the arrays in minute order. That order only holds until
+    // the next event of the day, which appends its minute if new. Minutes without events are
+    // left out of the arrays. Only a rebuild runs this; it is far too heavy per event.
+    private static final String HISTOGRAM_UPSERT = """
+            INSERT INTO office_minute_histograms
+                (office_id, work_date, check_in_minutes, check_in_counts, check_out_minutes, check_out_counts,
+                 check_ins, check_outs, updated_at)
+            SELECT d.office_id,
+                   d.day,
+                   COALESCE(ci.minutes, '{}'),
+                   COALESCE(ci.counts, '{}'),
+                   COALESCE(co.minutes, '{}'),
+                   COALESCE(co.counts, '{}'),
+                   COALESCE(ci.total, 0),
+                   COALESCE(co.total, 0),
+                   now()
+            FROM (
+                SELECT DISTINCT r.office_id, CAST(r.check_in_time AS date) AS day
+                FROM attendance_records r
+                WHERE r.office_id IS NOT NULL AND %s
+            ) d
+            CROSS JOIN LATERAL (
+                SELECT ARRAY_AGG(m.minute ORDER BY m.minute) AS minutes,
+                       ARRAY_AGG(m.total ORDER BY m.minute) AS counts,
+                       SUM(m.total) AS total
+                FROM (
+                    SELECT CAST(EXTRACT(HOUR FROM r.check_in_time) * 60
+                               + EXTRACT(MINUTE FROM r.check_in_time) AS integer) AS minute,
+                           CAST(COUNT(*) AS integer) AS total
+                    FROM attendance_records r
+                    WHERE r.office_id = d.office_id
+                      AND r.check_in_time >= d.day AND r.check_in_time < d.day + 1
+                      AND r.status <> :invalidLocation
+                    GROUP BY 1
+                ) m
+            ) ci
+            CROSS JOIN LATERAL (
+                SELECT ARRAY_AGG(m.minute ORDER BY m.minute) AS minutes,
+                       ARRAY_AGG(m.total ORDER BY m.minute) AS counts,
+                       SUM(m.total) AS total
+                FROM (
+                    SELECT CAST(EXTRACT(HOUR FROM r.check_out_time) * 60
+                               + EXTRACT(MINUTE FROM r.check_out_time) AS integer) AS minute,
+                           CAST(COUNT(*) AS integer) AS total
+                    FROM attendance_records r
+                    WHERE r.office_id = d.office_id
+                      AND r.check_in_time >= d.day AND r.check_in_time < d.day + 1
+                      AND r.check_out_time IS NOT NULL
+                      AND r.status <> :invalidLocation
+                    GROUP BY 1
+                ) m
+            ) co
+            ON CONFLICT (office_id, work_date) DO UPDATE SET
+                check_in_minutes = EXCLUDED.check_in_minutes,
+                check_in_counts = EXCLUDED.check_in_counts,
+                check_out_minutes = EXCLUDED.check_out_minutes,
+                check_out_counts = EXCLUDED.check_out_counts,
+                check_ins = EXCLUDED.check_ins,
+                check_outs = EXCLUDED.check_outs,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    // One new check-in added to its day's rollup, leaving the rest of the row (time entries, earlier
+    // records) as it is. Late is after 09:00 as in UPSERT.
+    private static final String CHECK_IN_INCREMENT = """
+            INSERT INTO attendance_daily_rollups AS d
+                (user_id, work_date, record_count, present, status, first_check_in, last_check_out,
+                 attendance_minutes, check_in_seconds_sum, check_out_count, check_out_seconds_sum,
+                 late_check_ins, early_check_outs, tracked_hours, entry_count, updated_at)
+            VALUES (:userId, :workDate, 1, FALSE, :status, :checkInTime, NULL,
+                    0, :checkInSeconds, 0, 0, :late, 0, 0, 0, now())
+            ON CONFLICT (user_id, work_date) DO UPDATE SET
+                record_count = d.record_count + 1,
+                status = EXCLUDED.status,
+                first_check_in = LEAST(d.first_check_in, EXCLUDED.first_check_in),
+                check_in_seconds_sum = d.check_in_seconds_sum + EXCLUDED.check_in_seconds_sum,
+                late_check_ins = d.late_check_ins + EXCLUDED.late_check_ins,
+                updated_at = now()
+            """;
+
+    // Adds :count events at :minute to one side of an office day. The minute's slot is found with
+    // array_position, or appended when the minute has no events yet, so the sparse arrays are not
+    // kept in minute order. The conflict update locks the row and sees the latest committed arrays,
+    // so concurrent writers of the same office day add up instead of overwriting each other.
+    private static final String HISTOGRAM_INCREMENT = """
+            INSERT INTO office_minute_histograms AS h
+                (office_id, work_date, check_in_minutes, check_in_counts, check_out_minutes, check_out_counts,
+                 check_ins, check_outs, updated_at)
+            VALUES (:officeId, :workDate, %1$s, now())
+            ON CONFLICT (office_id, work_date) DO UPDATE SET
+                %2$s_minutes[COALESCE(array_position(h.%2$s_minutes, :minute),
+                                      COALESCE(cardinality(h.%2$s_minutes), 0) + 1)] = :minute,
+                %2$s_counts[COALESCE(array_position(h.%2$s_minutes, :minute),
+                                     COALESCE(cardinality(h.%2$s_minutes), 0) + 1)]
+                    = COALESCE(h.%2$s_counts[array_position(h.%2$s_minutes, :minute)], 0) + :count,
+                %3$s = COALESCE(h.%3$s, 0) + :count,
+                updated_at = now()
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // Recomputes the given user days; returns the number of rollup rows written
+    public int refresh(Collection<DayKey> keys) {
+        List<DayKey> distinct = new ArrayList<>(new HashSet<>(keys));
+        int written = 0;
+        for (int from = 0; from < distinct.size(); from += KEY_CHUNK_SIZE) {
+            List<DayKey> chunk = distinct.subList(from, Math.min(from + KEY_CHUNK_SIZE, distinct.size()));
+
+            List<Object[]> tuples = new ArrayList<>(chunk.size());
+            Set<Long> userIds = new HashSet<>();
+            LocalDate first = null;
+            LocalDate last = null;
+            for (DayKey key : chunk) {
+                tuples.add(new Object[]{key.getUserId(), key.getWorkDate()});
+                userIds.add(key.getUserId());
+                first = first == null || key.getWorkDate().isBefore(first) ? key.getWorkDate() : first;
+                last = last == null || key.getWorkDate().isAfter(last) ? key.getWorkDate() : last;
+            }
+
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("keys", tuples)
+                    .addValue("userIds", userIds)
+                    .addValue("from", first.atStartOfDay())
+                    .addValue("to", last.plusDays(1).atStartOfDay())
+                    .addValue("checkedOut", AttendanceStatus.CHECKED_OUT.name())
+                    .addValue("invalidLocation", AttendanceStatus.INVALID_LOCATION.name());
+
+            namedParameterJdbcTemplate.update(
+                    "DELETE FROM attendance_daily_rollups WHERE (user_id, work_date) IN (:keys)", params);
+
+            // The user and time bounds let the record scan use the (user_id, ...) indexes
+            String recordScope = """
+                    r.user_id IN (:userIds)
+                          AND r.check_in_time >= :from AND r.check_in_time < :to
+                          AND (r.user_id, CAST(r.check_in_time AS date)) IN (:keys)""";
+            written += namedParameterJdbcTemplate.update(UPSERT.formatted(
+                            recordScope,
+                            "(t.user_id, t.date) IN (:keys)"),
+                    params);
+        }
+        return written;
+    }
+
+    // Adds check-ins just inserted to their days' rollups without recomputing them. Must not be
+    // combined with a refresh of the same day in one transaction unless the refresh comes after.
+    public void addCheckIns(Collection<CheckInRow> rows) {
+        MapSqlParameterSource[] params = rows.stream()
+                .sorted(Comparator.comparingLong(CheckInRow::getUserId).thenComparing(CheckInRow::getCheckInTime))
+                .map(row -> new MapSqlParameterSource()
+                        .addValue("userId", row.getUserId())
+                        .addValue("workDate", row.getCheckInTime().toLocalDate())
+                        .addValue("status", AttendanceStatus.CHECKED_IN.name())
+                        .addValue("checkInTime", row.getCheckInTime())
+                        .addValue("checkInSeconds", row.getCheckInTime().toLocalTime().toSecondOfDay())
+                        .addValue("late", row.getCheckInTime().toLocalTime().isAfter(LATE_AFTER) ? 1 : 0))
+                .toArray(MapSqlParameterSource[]::new);
+        if (params.length > 0) {
+            namedParameterJdbcTemplate.batchUpdate(CHECK_IN_INCREMENT, params);
+        }
+    }
+
+    // Counts check-ins and check-outs into the histograms of their office days. Events are
+    // grouped per minute and applied in office and day order, so writers lock rows in the same
+    // order; callers run this last in their transaction to hold those locks briefly.
+    public void addToHistograms(Collection<HistogramEvent> events) {
+        Map<HistogramEvent, Integer> counts = new TreeMap<>(Comparator
+                .comparingLong(HistogramEvent::getOfficeId)
+                .thenComparing(HistogramEvent::getWorkDate)
+                .thenComparing(HistogramEvent::isCheckOut)
+                .thenComparingInt(HistogramEvent::getMinute));
+        events.forEach(event -> counts.merge(event, 1, Integer::sum));
+        if (counts.isEmpty()) {
+            return;
+        }
+
+        List<MapSqlParameterSource> checkIns = new ArrayList<>();
+        List<MapSqlParameterSource> checkOuts = new ArrayList<>();
+        counts.forEach((event, count) -> (event.isCheckOut() ? checkOuts : checkIns).add(new MapSqlParameterSource()
+                .addValue("officeId", event.getOfficeId())
+                .addValue("workDate", event.getWorkDate())
+                .addValue("minute", event.getMinute())
+                .addValue("count", count)));
+
+        if (!checkIns.isEmpty()) {
+            namedParameterJdbcTemplate.batchUpdate(HISTOGRAM_INCREMENT.formatted(
+                            "ARRAY[:minute], ARRAY[:count], '{}', '{}', :count, 0", "check_in", "check_ins"),
+                    checkIns.toArray(new MapSqlParameterSource[0]));
+        }
+        if (!checkOuts.isEmpty()) {
+            namedParameterJdbcTemplate.batchUpdate(HISTOGRAM_INCREMENT.formatted(
+                            "'{}', '{}', ARRAY[:minute], ARRAY[:count], 0, :count", "check_out", "check_outs"),
+                    checkOuts.toArray(new MapSqlParameterSource[0]));
+        }
+    }
+
+    // Recomputes every user day in [from, to]; null bounds leave the range open on that side
+    public int rebuild(LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("checkedOut", AttendanceStatus.CHECKED_OUT.name())
+                .addValue("invalidLocation", AttendanceStatus.INVALID_LOCATION.name());
+
+        List<String> rollupScope = new ArrayList<>(List.of("TRUE"));
+        List<String> recordScope = new ArrayList<>(List.of("TRUE"));
+        List<String> entryScope = new ArrayList<>(List.of("TRUE"));
+        if (from != null) {
+            params.addValue("fromDate", from).addValue("fromTime", from.atStartOfDay());
+            rollupScope.add("work_date >= :fromDate");
+            recordScope.add("r.check_in_time >= :fromTime");
+            entryScope.add("t.date >= :fromDate");
+        }
+        if (to != null) {
+            params.addValue("toDate", to).addValue("toTime", to.plusDays(1).atStartOfDay());
+            rollupScope.add("work_date <= :toDate");
+            recordScope.add("r.check_in_time < :toTime");
+            entryScope.add("t.date <= :toDate");
+        }
+
+        namedParameterJdbcTemplate.update(
+                "DELETE FROM attendance_daily_rollups WHERE " + String.join(" AND ", rollupScope), params);
+        namedParameterJdbcTemplate.update(
+                "DELETE FROM office_minute_histograms WHERE " + String.join(" AND ", rollupScope), params);
+        int written = namedParameterJdbcTemplate.update(UPSERT.formatted(
+                        String.join(" AND ", recordScope),
+                        String.join(" AND ", entryScope)),
+                params);
+        namedParameterJdbcTemplate.update(HISTOGRAM_UPSERT.formatted(String.join(" AND ", recordScope)), params);
+        return written;
+    }
+
+    // True when a table is empty or has rows written before a column was added
+    public boolean needsBackfill() {
+        Boolean needed = jdbcTemplate.queryForObject("""
+                SELECT NOT EXISTS (SELECT 1 FROM attendance_daily_rollups)
+                    OR EXISTS (SELECT 1 FROM attendance_daily_rollups WHERE entry_count IS NULL)
+                    OR (NOT EXISTS (SELECT 1 FROM office_minute_histograms)
+                        AND EXISTS (SELECT 1 FROM attendance_records WHERE office_id IS NOT NULL))
+                """, Boolean.class);
+        return Boolean.TRUE.equals(needed);
+    }
+
+    // One check-in or check-out, counted on the office and day of its check-in
+    @Value
+    public static class HistogramEvent {
+        long officeId;
+        LocalDate workDate;
+        boolean checkOut;
+        int minute;
+
+        public static HistogramEvent checkIn(long officeId, LocalDateTime checkInTime) {
+            return new HistogramEvent(officeId, checkInTime.toLocalDate(), false, minuteOfDay(checkInTime));
+        }
+
+        public static HistogramEvent checkOut(long officeId, LocalDateTime checkInTime, LocalDateTime checkOutTime) {
+            return new HistogramEvent(officeId, checkInTime.toLocalDate(), true, minuteOfDay(checkOutTime));
+        }
+
+        private static int minuteOfDay(LocalDateTime time) {
+            return time.getHour() * 60 + time.getMinute();
+        }
+    }
+}
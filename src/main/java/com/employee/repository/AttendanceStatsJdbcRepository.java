@@ -0,0 +1,185 @@
+package com.employee.repository;
+
+import com.employee.model.attendance.AttendanceStatus;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+// Reads behind the attendance statistics, served from attendance_daily_rollups and
+// office_minute_histograms so a range costs one small row per user (or office) day instead of
+// a scan of the raw tables. Every method covers either one user or office or, with a null id,
+// everybody in a single statement. Bounds are inclusive.
+@Repository
+@RequiredArgsConstructor
+public class AttendanceStatsJdbcRepository {
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private static final String ROLLUP_DAYS = """
+            SELECT user_id, work_date, record_count, present, status, first_check_in, last_check_out,
+                   attendance_minutes, check_in_seconds_sum, check_out_count, check_out_seconds_sum,
+                   late_check_ins, early_check_outs, tracked_hours, entry_count
+            FROM attendance_daily_rollups
+            WHERE work_date BETWEEN :from AND :to
+            """;
+
+    // Streams the rollup rows of the range to the consumer without materializing them
+    public void forEachDay(Long userId, LocalDate from, LocalDate to, Consumer<RollupDay> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("from", from)
+                .addValue("to", to);
+
+        namedParameterJdbcTemplate.query(
+                ROLLUP_DAYS + (userId != null ? "  AND user_id = :userId\n" : ""),
+                params,
+                rs -> {
+                    consumer.accept(mapRollupDay(rs));
+                });
+    }
+
+    // Same as forEachDay for a set of users, such as one page of a department report
+    public void forEachDayOfUsers(Collection<Long> userIds, LocalDate from, LocalDate to, Consumer<RollupDay> consumer) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userIds", userIds)
+                .addValue("from", from)
+                .addValue("to", to);
+
+        namedParameterJdbcTemplate.query(
+                ROLLUP_DAYS + "  AND user_id IN (:userIds)\n",
+                params,
+                rs -> {
+                    consumer.accept(mapRollupDay(rs));
+                });
+    }
+
+    // Present days and attendance minutes summed over every user, for department-wide averages
+    public DepartmentTotals sumDepartment(LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to);
+
+        return namedParameterJdbcTemplate.queryForObject("""
+                        SELECT COUNT(*) FILTER (WHERE present) AS present_days,
+                               COALESCE(SUM(attendance_minutes), 0) AS attendance_minutes
+                        FROM attendance_daily_rollups
+                        WHERE work_date BETWEEN :from AND :to
+                        """,
+                params,
+                (rs, rowNum) -> new DepartmentTotals(
+                        rs.getLong("present_days"),
+                        rs.getLong("attendance_minutes")));
+    }
+
+    // Streams the minute histograms of the range, of one office or, with a null office id, of all
+    public void forEachOfficeDay(Long officeId, LocalDate from, LocalDate to, Consumer<OfficeMinutesDay> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("officeId", officeId)
+                .addValue("from", from)
+                .addValue("to", to);
+
+        namedParameterJdbcTemplate.query("""
+                        SELECT office_id, work_date, check_in_minutes, check_in_counts,
+                               check_out_minutes, check_out_counts
+                        FROM office_minute_histograms
+                        WHERE work_date BETWEEN :from AND :to
+                        """ + (officeId != null ? "  AND office_id = :officeId\n" : ""),
+                params,
+                rs -> {
+                    consumer.accept(OfficeMinutesDay.builder()
+                            .officeId(rs.getLong("office_id"))
+                            .date(rs.getObject("work_date", LocalDate.class))
+                            .checkInMinutes(toIntArray(rs.getArray("check_in_minutes")))
+                            .checkInCounts(toIntArray(rs.getArray("check_in_counts")))
+                            .checkOutMinutes(toIntArray(rs.getArray("check_out_minutes")))
+                            .checkOutCounts(toIntArray(rs.getArray("check_out_counts")))
+                            .build());
+                });
+    }
+
+    private static RollupDay mapRollupDay(ResultSet rs) throws SQLException {
+        String status = rs.getString("status");
+        return RollupDay.builder()
+                .userId(rs.getLong("user_id"))
+                .date(rs.getObject("work_date", LocalDate.class))
+                .recordCount(rs.getInt("record_count"))
+                .present(rs.getBoolean("present"))
+                .status(status != null ? AttendanceStatus.valueOf(status) : null)
+                .firstCheckIn(rs.getObject("first_check_in", LocalDateTime.class))
+                .lastCheckOut(rs.getObject("last_check_out", LocalDateTime.class))
+                .attendanceMinutes(rs.getLong("attendance_minutes"))
+                .checkInSecondsSum(rs.getLong("check_in_seconds_sum"))
+                .checkOutCount(rs.getInt("check_out_count"))
+                .checkOutSecondsSum(rs.getLong("check_out_seconds_sum"))
+                .lateCheckIns(rs.getInt("late_check_ins"))
+                .earlyCheckOuts(rs.getInt("early_check_outs"))
+                .trackedHours(rs.getDouble("tracked_hours"))
+                .entryCount(rs.getInt("entry_count"))
+                .build();
+    }
+
+    private static int[] toIntArray(Array array) throws SQLException {
+        if (array == null) {
+            return new int[0];
+        }
+        Integer[] values = (Integer[]) array.getArray();
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        array.free();
+        return result;
+    }
+
+    @Value
+    @Builder
+    public static class RollupDay {
+        long userId;
+        LocalDate date;
+        int recordCount;
+        boolean present;
+        AttendanceStatus status;
+        LocalDateTime firstCheckIn;
+        LocalDateTime lastCheckOut;
+        long attendanceMinutes;
+        long checkInSecondsSum;
+        int checkOutCount;
+        long checkOutSecondsSum;
+        int lateCheckIns;
+        int earlyCheckOuts;
+        double trackedHours;
+        int entryCount;
+    }
+
+    @Value
+    public static class DepartmentTotals {
+        long presentDays;
+        long attendanceMinutes;
+    }
+
+    // Non-empty minutes of the day and their counts, as parallel arrays. They are in minute order
+    // only right after a rebuild; minutes added by later events are appended, so do not rely on it.
+    @Value
+    @Builder
+    public static class OfficeMinutesDay {
+        long officeId;
+        LocalDate date;
+        int[] checkInMinutes;
+        int[] checkInCounts;
+        int[] checkOutMinutes;
+        int[] checkOutCounts;
+    }
+}
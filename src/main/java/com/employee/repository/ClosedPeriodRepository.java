@@ -0,0 +1,28 @@
+package com.employee.repository;
+
+import com.employee.model.period.ClosedPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ClosedPeriodRepository extends JpaRepository<ClosedPeriod, Long> {
+    Optional<ClosedPeriod> findByPeriodStart(LocalDate periodStart);
+    List<ClosedPeriod> findAllByOrderByPeriodStartDesc();
+    boolean existsByPeriodStart(LocalDate periodStart);
+
+    @Query("SELECT p.periodStart FROM ClosedPeriod p")
+    List<LocalDate> findAllPeriodStarts();
+
+    @Query("SELECT p.periodStart FROM ClosedPeriod p WHERE p.periodStart BETWEEN :from AND :to")
+    List<LocalDate> findPeriodStartsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT p.periodStart FROM ClosedPeriod p WHERE p.periodStart IN :periodStarts")
+    List<LocalDate> findPeriodStartsIn(@Param("periodStarts") Collection<LocalDate> periodStarts);
+}
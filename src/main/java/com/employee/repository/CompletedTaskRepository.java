@@ -0,0 +1,9 @@
+package com.employee.repository;
+
+import com.employee.model.maintenance.CompletedTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CompletedTaskRepository extends JpaRepository<CompletedTask, String> {
+}
@@ -0,0 +1,68 @@
+package com.employee.repository;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class GeofenceRejectionJdbcRepository {
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Merges buffered counters into the per-user, per-day rows
+    public void batchUpsert(List<RejectionRow> rows) {
+        jdbcTemplate.batchUpdate("""
+                        INSERT INTO geofence_rejections
+                            (user_id, office_id, work_date, first_attempt_at, last_attempt_at,
+                             attempt_count, nearest_distance_meters)
+                        VALUES (?, ?, ?, ?, ?, ?, ?)
+                        ON CONFLICT (user_id, work_date) DO UPDATE SET
+                            first_attempt_at = LEAST(geofence_rejections.first_attempt_at, EXCLUDED.first_attempt_at),
+                            last_attempt_at = GREATEST(geofence_rejections.last_attempt_at, EXCLUDED.last_attempt_at),
+                            attempt_count = geofence_rejections.attempt_count + EXCLUDED.attempt_count,
+                            office_id = CASE
+                                WHEN EXCLUDED.nearest_distance_meters < geofence_rejections.nearest_distance_meters
+                                THEN EXCLUDED.office_id
+                                ELSE geofence_rejections.office_id
+                            END,
+                            nearest_distance_meters = LEAST(
+                                geofence_rejections.nearest_distance_meters, EXCLUDED.nearest_distance_meters)
+                        """,
+                rows,
+                BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setLong(1, row.getUserId());
+                    if (row.getOfficeId() != null) {
+                        ps.setLong(2, row.getOfficeId());
+                    } else {
+                        ps.setNull(2, Types.BIGINT);
+                    }
+                    ps.setObject(3, row.getWorkDate());
+                    ps.setObject(4, row.getFirstAttemptAt());
+                    ps.setObject(5, row.getLastAttemptAt());
+                    ps.setInt(6, row.getAttemptCount());
+                    ps.setDouble(7, row.getNearestDistanceMeters());
+                });
+    }
+
+    @Value
+    @Builder
+    public static class RejectionRow {
+        long userId;
+        Long officeId;
+        LocalDate workDate;
+        LocalDateTime firstAttemptAt;
+        LocalDateTime lastAttemptAt;
+        int attemptCount;
+        double nearestDistanceMeters;
+    }
+}
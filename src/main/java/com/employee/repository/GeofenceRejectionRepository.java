@@ -0,0 +1,16 @@
+package com.employee.repository;
+
+import com.employee.model.attendance.GeofenceRejection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface GeofenceRejectionRepository extends JpaRepository<GeofenceRejection, Long> {
+    List<GeofenceRejection> findByWorkDateBetweenOrderByWorkDateDescAttemptCountDesc(
+            LocalDate startDate,
+            LocalDate endDate
+    );
+}
@@ -2,7 +2,10 @@ package com.employee.repository;
 
 import com.employee.model.meeting.Meeting;
 import com.employee.model.user.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -17,9 +20,17 @@ public interface MeetingRepository extends JpaRepository<Meeting, Long> {
             LocalDateTime endTime
     );
 
-    // Add this new method
-    List<Meeting> findByStartTimeBetweenOrderByStartTimeDesc(
-            LocalDateTime startTime,
-            LocalDateTime endTime
+    // Keyset page, latest start first: meetings from startTime on that sort strictly after
+    // (afterTime, afterId). The first page passes the end of the range and Long.MAX_VALUE.
+    @Query("SELECT m FROM Meeting m WHERE m.startTime >= :startTime " +
+            "AND (m.startTime < :afterTime OR (m.startTime = :afterTime AND m.id < :afterId)) " +
+            "ORDER BY m.startTime DESC, m.id DESC")
+    List<Meeting> findPage(
+            @Param("startTime") LocalDateTime startTime,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Pageable pageable
     );
+
+    long countByStartTimeBetween(LocalDateTime startTime, LocalDateTime endTime);
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.employee.repository;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class PeriodSnapshotJdbcRepository {
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // Blocks writes to the snapshot sources until the current transaction ends, after waiting
+    // for those already in progress to commit. Reads are not blocked.
+    public void lockSources() {
+        jdbcTemplate.execute("LOCK TABLE attendance_records, time_entries IN SHARE MODE");
+    }
+
+    // Removes the month's snapshots, of one user or, with a null user id, of everybody
+    public int deleteMonth(LocalDate periodStart, Long userId) {
+        if (userId == null) {
+            return jdbcTemplate.update("DELETE FROM period_snapshots WHERE period_start = ?", periodStart);
+        }
+        return jdbcTemplate.update(
+                "DELETE FROM period_snapshots WHERE period_start = ? AND user_id = ?", periodStart, userId);
+    }
+
+    public void batchInsert(List<SnapshotRow> rows) {
+        jdbcTemplate.batchUpdate("""
+                        INSERT INTO period_snapshots
+                            (user_id, period_start, present_days, record_days, attendance_minutes,
+                             late_check_ins, early_check_outs, tracked_hours, entry_count, entry_days,
+                             days, created_at)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now())
+                        """,
+                rows,
+                BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setLong(1, row.getUserId());
+                    ps.setObject(2, row.getPeriodStart());
+                    ps.setInt(3, row.getPresentDays());
+                    ps.setInt(4, row.getRecordDays());
+                    ps.setLong(5, row.getAttendanceMinutes());
+                    ps.setInt(6, row.getLateCheckIns());
+                    ps.setInt(7, row.getEarlyCheckOuts());
+                    ps.setDouble(8, row.getTrackedHours());
+                    ps.setInt(9, row.getEntryCount());
+                    ps.setInt(10, row.getEntryDays());
+                    ps.setBytes(11, row.getDays());
+                });
+    }
+
+    // Streams the snapshots of the given months; the packed days are only read when asked for
+    public void forEach(
+            Long userId,
+            Collection<LocalDate> periodStarts,
+            boolean withDays,
+            Consumer<SnapshotRow> consumer) {
+        if (periodStarts.isEmpty()) {
+            return;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("periodStarts", periodStarts);
+
+        namedParameterJdbcTemplate.query("""
+                        SELECT user_id, period_start, present_days, record_days, attendance_minutes,
+                               late_check_ins, early_check_outs, tracked_hours, entry_count, entry_days
+                        """ + (withDays ? "     , days\n" : "") + """
+                        FROM period_snapshots
+                        WHERE period_start IN (:periodStarts)
+                        """ + (userId != null ? "  AND user_id = :userId\n" : ""),
+                params,
+                rs -> {
+                    consumer.accept(SnapshotRow.builder()
+                            .userId(rs.getLong("user_id"))
+                            .periodStart(rs.getObject("period_start", LocalDate.class))
+                            .presentDays(rs.getInt("present_days"))
+                            .recordDays(rs.getInt("record_days"))
+                            .attendanceMinutes(rs.getLong("attendance_minutes"))
+                            .lateCheckIns(rs.getInt("late_check_ins"))
+                            .earlyCheckOuts(rs.getInt("early_check_outs"))
+                            .trackedHours(rs.getDouble("tracked_hours"))
+                            .entryCount(rs.getInt("entry_count"))
+                            .entryDays(rs.getInt("entry_days"))
+                            .days(withDays ? rs.getBytes("days") : null)
+                            .build());
+                });
+    }
+
+    @Value
+    @Builder
+    public static class SnapshotRow {
+        long userId;
+        LocalDate periodStart;
+        int presentDays;
+        int recordDays;
+        long attendanceMinutes;
+        int lateCheckIns;
+        int earlyCheckOuts;
+        double trackedHours;
+        int entryCount;
+        int entryDays;
+        byte[] days;
+    }
+}
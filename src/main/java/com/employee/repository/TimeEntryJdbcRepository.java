@@ -0,0 +1,115 @@
+package com.employee.repository;
+
+import com.employee.dto.timesheet.GraphBucket;
+import com.employee.dto.timesheet.TimeEntryAggregateDTO;
+import com.employee.dto.timesheet.TimeEntryDTO;
+import com.employee.dto.timesheet.TimeEntryRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Plain JDBC access to time_entries for aggregations that are expressed more directly in
+// PostgreSQL than in JPQL, and for bulk inserts that IDENTITY ids keep JPA from batching.
+@Repository
+@RequiredArgsConstructor
+public class TimeEntryJdbcRepository {
+    private static final int INSERT_CHUNK_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // Multi-row insert of one user's entries, one statement per chunk. Ids are drawn from the
+    // column's identity sequence by the database and returned with the inserted rows, ordered
+    // by date then id.
+    public List<TimeEntryDTO> insertAll(Long userId, List<TimeEntryRequest> entries, LocalDateTime now) {
+        List<TimeEntryDTO> inserted = new ArrayList<>(entries.size());
+        Timestamp createdAt = Timestamp.valueOf(now);
+        for (int from = 0; from < entries.size(); from += INSERT_CHUNK_SIZE) {
+            List<TimeEntryRequest> chunk = entries.subList(from, Math.min(from + INSERT_CHUNK_SIZE, entries.size()));
+
+            Date[] dates = new Date[chunk.size()];
+            Double[] hours = new Double[chunk.size()];
+            String[] descriptions = new String[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                TimeEntryRequest entry = chunk.get(i);
+                dates[i] = Date.valueOf(entry.getDate());
+                hours[i] = entry.getHours();
+                descriptions[i] = entry.getDescription();
+            }
+
+            jdbcTemplate.query(con -> {
+                        PreparedStatement ps = con.prepareStatement("""
+                                INSERT INTO time_entries (user_id, date, hours, description, created_at, updated_at)
+                                SELECT ?, t.date, t.hours, t.description, ?, ?
+                                FROM unnest(?::date[], ?::float8[], ?::varchar[]) WITH ORDINALITY
+                                    AS t(date, hours, description, ord)
+                                ORDER BY t.ord
+                                RETURNING id, date, hours, description, created_at, updated_at
+                                """);
+                        ps.setLong(1, userId);
+                        ps.setTimestamp(2, createdAt);
+                        ps.setTimestamp(3, createdAt);
+                        ps.setArray(4, con.createArrayOf("date", dates));
+                        ps.setArray(5, con.createArrayOf("float8", hours));
+                        ps.setArray(6, con.createArrayOf("varchar", descriptions));
+                        return ps;
+                    },
+                    rs -> {
+                        inserted.add(TimeEntryDTO.builder()
+                                .id(rs.getLong("id"))
+                                .date(rs.getObject("date", LocalDate.class))
+                                .hours(rs.getDouble("hours"))
+                                .description(rs.getString("description"))
+                                .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                                .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+                                .build());
+                    });
+        }
+        inserted.sort(Comparator.comparing(TimeEntryDTO::getDate).thenComparing(TimeEntryDTO::getId));
+        return inserted;
+    }
+
+    // Hours of one user per bucket over [startDate, endDate], oldest first. Buckets start at
+    // date_trunc of their unit (weeks on Monday) and empty buckets are returned with zero hours,
+    // so the result has one row per bucket whatever the number of entries.
+    public List<TimeEntryAggregateDTO> sumHoursByBucket(
+            Long userId, LocalDate startDate, LocalDate endDate, GraphBucket bucket) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("startDate", startDate)
+                .addValue("endDate", endDate)
+                .addValue("unit", bucket.name().toLowerCase())
+                .addValue("step", "1 " + bucket.name().toLowerCase());
+
+        return namedParameterJdbcTemplate.query("""
+                        SELECT CAST(b.bucket AS date) AS bucket_start, COALESCE(s.hours, 0) AS hours
+                        FROM generate_series(
+                                 date_trunc(:unit, CAST(:startDate AS timestamp)),
+                                 CAST(:endDate AS timestamp),
+                                 CAST(:step AS interval)) AS b(bucket)
+                        LEFT JOIN (
+                            SELECT date_trunc(:unit, CAST(t.date AS timestamp)) AS bucket, SUM(t.hours) AS hours
+                            FROM time_entries t
+                            WHERE t.user_id = :userId AND t.date BETWEEN :startDate AND :endDate
+                            GROUP BY 1
+                        ) s ON s.bucket = b.bucket
+                        ORDER BY b.bucket
+                        """,
+                params,
+                (rs, rowNum) -> TimeEntryAggregateDTO.builder()
+                        .date(rs.getObject("bucket_start", LocalDate.class))
+                        .hours(rs.getDouble("hours"))
+                        .build());
+    }
+}
@@ -2,12 +2,21 @@ package com.employee.repository;
 
 import com.employee.model.timesheet.TimeEntry;
 import com.employee.model.user.User;
+import com.employee.repository.projection.DailyHoursView;
+import com.employee.repository.projection.UserHoursView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 // repository/TimeEntryRepository.java
 // TimeEntryRepository.java
@@ -17,6 +26,59 @@ public interface TimeEntryRepository extends JpaRepository<TimeEntry, Long> {
     Optional<TimeEntry> findByUserAndDate(User user, LocalDate date);
     boolean existsByUserAndDate(User user, LocalDate date);
 
-    // Add this new method
-    List<TimeEntry> findByDateBetweenOrderByDateDesc(LocalDate startDate, LocalDate endDate);
+    // Whole range for streaming exports; must be consumed and closed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM TimeEntry t JOIN FETCH t.user " +
+            "WHERE t.date BETWEEN :startDate AND :endDate ORDER BY t.date DESC, t.id DESC")
+    Stream<TimeEntry> streamByDateBetween(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Keyset page of one user's entries, newest date first: entries from startDate on that sort
+    // strictly after (afterDate, afterId). The first page passes the end date and Long.MAX_VALUE.
+    @Query("SELECT t FROM TimeEntry t WHERE t.user.id = :userId AND t.date >= :startDate " +
+            "AND (t.date < :afterDate OR (t.date = :afterDate AND t.id < :afterId)) " +
+            "ORDER BY t.date DESC, t.id DESC")
+    List<TimeEntry> findUserPage(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    @Query("SELECT t.date AS date, SUM(t.hours) AS hours, COUNT(t) AS entries FROM TimeEntry t " +
+            "WHERE t.user.id = :userId AND t.date BETWEEN :startDate AND :endDate GROUP BY t.date")
+    List<DailyHoursView> sumHoursByDay(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT t.date AS date, SUM(t.hours) AS hours, COUNT(t) AS entries FROM TimeEntry t " +
+            "WHERE t.date BETWEEN :startDate AND :endDate GROUP BY t.date")
+    List<DailyHoursView> sumHoursByDayForAllUsers(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT u.id AS userId, u.email AS email, SUM(t.hours) AS hours, COUNT(t) AS entries " +
+            "FROM TimeEntry t JOIN t.user u " +
+            "WHERE t.date BETWEEN :startDate AND :endDate GROUP BY u.id, u.email")
+    List<UserHoursView> sumHoursByUser(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT COALESCE(SUM(t.hours), 0.0) FROM TimeEntry t " +
+            "WHERE t.user.id = :userId AND t.date BETWEEN :startDate AND :endDate")
+    Double sumHours(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
 }
\ No newline at end of file
@@ -1,13 +1,25 @@
 package com.employee.repository;
 
 import com.employee.model.user.User;
+import com.employee.repository.projection.UserEmailView;
+import com.employee.repository.projection.UserNameView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    List<UserNameView> findByIdIn(Collection<Long> ids);
+    List<UserNameView> findAllByOrderByIdAsc();
+    List<UserNameView> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<UserEmailView> findEmailsByIdIn(Collection<Long> ids);
+    Optional<UserNameView> findNameByEmail(String email);
+    List<User> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.employee.repository.projection;
+
+import java.time.LocalDate;
+
+public interface DailyHoursView {
+    LocalDate getDate();
+    Double getHours();
+    Long getEntries();
+}
@@ -0,0 +1,10 @@
+package com.employee.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface PresentUserView {
+    Long getUserId();
+    String getFirstName();
+    String getLastName();
+    LocalDateTime getCheckInTime();
+}
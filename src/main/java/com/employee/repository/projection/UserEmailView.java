@@ -0,0 +1,6 @@
+package com.employee.repository.projection;
+
+public interface UserEmailView {
+    Long getId();
+    String getEmail();
+}
@@ -0,0 +1,8 @@
+package com.employee.repository.projection;
+
+public interface UserHoursView {
+    Long getUserId();
+    String getEmail();
+    Double getHours();
+    Long getEntries();
+}
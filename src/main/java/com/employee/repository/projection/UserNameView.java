@@ -0,0 +1,7 @@
+package com.employee.repository.projection;
+
+public interface UserNameView {
+    Long getId();
+    String getFirstName();
+    String getLastName();
+}
@@ -25,6 +25,7 @@ public class CalendarService {
     private final MeetingRepository meetingRepository;
     private final TimeEntryRepository timeEntryRepository;
     private final UserRepository userRepository;
+    private final StatisticsResultCache statisticsResultCache;
 
     public List<CalendarEventDTO> getCalendarEvents(
             String userEmail,
@@ -95,6 +96,9 @@ public class CalendarService {
                 .build();
 
         meeting = meetingRepository.save(meeting);
+        statisticsResultCache.invalidateMeeting(
+                participants.stream().map(User::getId).collect(Collectors.toList()),
+                meeting.getStartTime().toLocalDate());
         return mapToDTO(meeting);
     }
 
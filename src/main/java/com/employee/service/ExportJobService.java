@@ -0,0 +1,241 @@
+package com.employee.service;
+
+import com.employee.dto.ExportJobDTO;
+import com.employee.dto.ExportJobStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Runs report exports in the background so no request thread waits on them. A small dedicated
+// pool caps how many exports (and so how many database connections) run at once, with a short
+// queue behind it; submissions beyond that are refused rather than piling up. Finished reports
+// are written to a local directory, kept for the retention period, then deleted with their job.
+@Service
+@Slf4j
+public class ExportJobService {
+    private final ExportService exportService;
+    private final ThreadPoolExecutor executor;
+    private final Path directory;
+    private final long retentionMinutes;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobService(
+            ExportService exportService,
+            @Value("${export.jobs.max-concurrent:2}") int maxConcurrent,
+            @Value("${export.jobs.queue-capacity:8}") int queueCapacity,
+            @Value("${export.jobs.directory:data/exports}") String directory,
+            @Value("${export.jobs.retention-minutes:1440}") long retentionMinutes) {
+        this.exportService = exportService;
+        this.directory = Paths.get(directory);
+        this.retentionMinutes = retentionMinutes;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrent,
+                maxConcurrent,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "export-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public ExportJobDTO submit(LocalDate startDate, LocalDate endDate, String requestedBy) {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), startDate, endDate, requestedBy);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new RuntimeException("Too many exports in progress, try again later");
+        }
+        log.info("Queued export job {} for {} to {} by {}", job.id, startDate, endDate, requestedBy);
+        return job.toDTO();
+    }
+
+    public ExportJobDTO getJob(String jobId) {
+        return findJob(jobId).toDTO();
+    }
+
+    public List<ExportJobDTO> getJobs() {
+        return jobs.values().stream()
+                .map(ExportJob::toDTO)
+                .sorted((left, right) -> right.getSubmittedAt().compareTo(left.getSubmittedAt()))
+                .toList();
+    }
+
+    // Path of a completed report
+    public Path getArtifact(String jobId) {
+        ExportJob job = findJob(jobId);
+        if (job.status != ExportJobStatus.COMPLETED) {
+            throw new RuntimeException("Export job " + jobId + " is " + job.status);
+        }
+        return job.file;
+    }
+
+    @Scheduled(fixedDelayString = "${export.jobs.cleanup-interval-ms:600000}")
+    public void removeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(job.file);
+            log.info("Removed expired export job {}", job.id);
+            return true;
+        });
+        removeOrphanedFiles(cutoff);
+    }
+
+    // Files left by jobs of an earlier run, which are no longer tracked
+    private void removeOrphanedFiles(LocalDateTime cutoff) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        long cutoffMillis = cutoff.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> !jobs.containsKey(jobIdOf(file)))
+                    .filter(file -> file.toFile().lastModified() < cutoffMillis)
+                    .forEach(ExportJobService::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Could not list export directory {}", directory, e);
+        }
+    }
+
+    private static String jobIdOf(Path file) {
+        String name = file.getFileName().toString();
+        int extension = name.indexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ExportJob job) {
+        job.status = ExportJobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+
+        Path file = directory.resolve(job.id + ".xlsx");
+        Path partial = directory.resolve(job.id + ".xlsx.part");
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                exportService.writeReport(job.startDate, job.endDate, out, job.rowsWritten::put);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            job.file = file;
+            job.fileSizeBytes = Files.size(file);
+            job.status = ExportJobStatus.COMPLETED;
+            log.info("Export job {} completed: {} bytes, rows {}", job.id, job.fileSizeBytes, job.rowsWritten);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(partial);
+            job.error = e instanceof UncheckedIOException ? e.getCause().getMessage() : e.getMessage();
+            job.status = ExportJobStatus.FAILED;
+            log.error("Export job {} failed", job.id, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private ExportJob findJob(String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Export job not found");
+        }
+        return job;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    // Mutated only by the worker running it; read by status requests
+    private static final class ExportJob {
+        final String id;
+        final LocalDate startDate;
+        final LocalDate endDate;
+        final String requestedBy;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        // Insertion order keeps the sheets in workbook order
+        final Map<String, Long> rowsWritten = Collections.synchronizedMap(new LinkedHashMap<>());
+
+        volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+        volatile Path file;
+        volatile Long fileSizeBytes;
+        volatile String error;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+
+        ExportJob(String id, LocalDate startDate, LocalDate endDate, String requestedBy) {
+            this.id = id;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.requestedBy = requestedBy;
+        }
+
+        ExportJobDTO toDTO() {
+            Map<String, Long> rows;
+            synchronized (rowsWritten) {
+                rows = new LinkedHashMap<>(rowsWritten);
+            }
+            return ExportJobDTO.builder()
+                    .id(id)
+                    .status(status)
+                    .startDate(startDate)
+                    .endDate(endDate)
+                    .requestedBy(requestedBy)
+                    .rowsWritten(rows)
+                    .fileSizeBytes(fileSizeBytes)
+                    .error(error)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -1,45 +1,66 @@
 package com.employee.service;
 
 import com.employee.dto.user.UserStatisticsDTO;
-import com.employee.model.timesheet.TimeEntry;
 import com.employee.service.user.UserService;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.ObjLongConsumer;
 
+// The report is built on a streaming workbook: only the last rowWindow rows of a sheet stay
+// in memory, older ones are flushed to compressed temp files, and the finished workbook is
+// written straight to the caller's stream. Peak heap does not depend on the number of rows.
 @Service
 @RequiredArgsConstructor
 public class ExportService {
     private final TimeEntryService timeEntryService;
     private final UserService userService;
 
-    public byte[] generateReport(LocalDate startDate, LocalDate endDate) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
+    // Rows between progress reports within a sheet
+    private static final int PROGRESS_EVERY = 1000;
+
+    @Value("${export.xlsx.row-window:100}")
+    private int rowWindow;
+
+    public void writeReport(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        writeReport(startDate, endDate, out, (sheet, rows) -> { });
+    }
+
+    // progress receives a sheet name and the data rows written to it so far
+    public void writeReport(
+            LocalDate startDate,
+            LocalDate endDate,
+            OutputStream out,
+            ObjLongConsumer<String> progress) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
             // Time Entries Sheet
             Sheet timeEntriesSheet = workbook.createSheet("Time Entries");
-            createTimeEntriesSheet(timeEntriesSheet, startDate, endDate);
+            createTimeEntriesSheet(timeEntriesSheet, startDate, endDate, progress);
 
             // User Statistics Sheet
             Sheet userStatsSheet = workbook.createSheet("User Statistics");
-            createUserStatisticsSheet(userStatsSheet, startDate, endDate);
+            createUserStatisticsSheet(userStatsSheet, startDate, endDate, progress);
 
-            // Write to byte array
-            try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-                workbook.write(outputStream);
-                return outputStream.toByteArray();
-            }
+            workbook.write(out);
+        } finally {
+            // Removes the temp files backing the flushed rows
+            workbook.dispose();
+            workbook.close();
         }
     }
 
-    private void createTimeEntriesSheet(Sheet sheet, LocalDate startDate, LocalDate endDate) {
+    private void createTimeEntriesSheet(
+            Sheet sheet, LocalDate startDate, LocalDate endDate, ObjLongConsumer<String> progress) {
         // Create header row
         Row headerRow = sheet.createRow(0);
         headerRow.createCell(0).setCellValue("Date");
@@ -47,19 +68,23 @@ public class ExportService {
         headerRow.createCell(2).setCellValue("Hours");
         headerRow.createCell(3).setCellValue("Description");
 
-        // Add data rows
-        List<TimeEntry> entries = timeEntryService.getAllTimeEntries(startDate, endDate);
-        int rowNum = 1;
-        for (TimeEntry entry : entries) {
-            Row row = sheet.createRow(rowNum++);
+        // Add data rows as they come off the cursor
+        int[] rowNum = {1};
+        timeEntryService.forEachTimeEntry(startDate, endDate, entry -> {
+            Row row = sheet.createRow(rowNum[0]++);
             row.createCell(0).setCellValue(entry.getDate().toString());
             row.createCell(1).setCellValue(entry.getUser().getEmail());
             row.createCell(2).setCellValue(entry.getHours());
             row.createCell(3).setCellValue(entry.getDescription());
-        }
+            if ((rowNum[0] - 1) % PROGRESS_EVERY == 0) {
+                progress.accept(sheet.getSheetName(), rowNum[0] - 1);
+            }
+        });
+        progress.accept(sheet.getSheetName(), rowNum[0] - 1);
     }
 
-    private void createUserStatisticsSheet(Sheet sheet, LocalDate startDate, LocalDate endDate) {
+    private void createUserStatisticsSheet(
+            Sheet sheet, LocalDate startDate, LocalDate endDate, ObjLongConsumer<String> progress) {
         Row headerRow = sheet.createRow(0);
         headerRow.createCell(0).setCellValue("User");
         headerRow.createCell(1).setCellValue("Total Hours");
@@ -75,5 +100,6 @@ public class ExportService {
             row.createCell(2).setCellValue(stat.getAverageHoursPerDay());
             row.createCell(3).setCellValue(stat.getTotalMeetings());
         }
+        progress.accept(sheet.getSheetName(), statistics.size());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.employee.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Writes the rows of a streaming repository query to a response as one JSON array.
+// The query runs in a read-only transaction, so the PostgreSQL driver reads through a cursor
+// in fetch-size chunks; each entity is mapped, written and detached before the next row is
+// read, keeping heap use flat and sending the first bytes while the query is still running.
+@Component
+@Slf4j
+public class JsonArrayStreamer {
+    // Rows written between flushes of the generator to the response
+    private static final int FLUSH_EVERY = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public JsonArrayStreamer(
+            ObjectMapper objectMapper,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public <E, T> void write(OutputStream out, Supplier<Stream<E>> query, Function<E, T> mapper) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            long started = System.currentTimeMillis();
+            long written = 0;
+            try (Stream<E> rows = query.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // The servlet container owns the response stream
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                Iterator<E> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    E row = iterator.next();
+                    generator.writeObject(mapper.apply(row));
+                    entityManager.detach(row);
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            log.info("Streamed {} rows in {} ms", written, System.currentTimeMillis() - started);
+        });
+    }
+}
@@ -1,11 +1,14 @@
 package com.employee.service;
 
 
+import com.employee.dto.CursorPageDTO;
 import com.employee.dto.meeting.MeetingDTO;
 import com.employee.dto.user.UserDTO;
 import com.employee.model.meeting.Meeting;
 import com.employee.model.user.User;
 import com.employee.repository.MeetingRepository;
+import com.employee.service.pagination.KeysetCursor;
+import com.employee.service.pagination.PageLimits;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -17,14 +20,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MeetingService {
     private final MeetingRepository meetingRepository;
+    private final PageLimits pageLimits;
 
-    public List<MeetingDTO> getAllMeetings(LocalDate startDate, LocalDate endDate) {
-        return meetingRepository.findByStartTimeBetweenOrderByStartTimeDesc(
-                        startDate.atStartOfDay(),
-                        endDate.atTime(23, 59, 59)
-                ).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    // Keyset-paginated on (start time, id), latest first
+    public CursorPageDTO<MeetingDTO> getAllMeetings(
+            LocalDate startDate, LocalDate endDate, String cursor, Integer limit) {
+        KeysetCursor after = cursor != null
+                ? KeysetCursor.decode(cursor)
+                : KeysetCursor.of(endDate.atTime(23, 59, 59), Long.MAX_VALUE);
+        int pageSize = pageLimits.pageSize(limit);
+        List<Meeting> meetings = meetingRepository.findPage(
+                startDate.atStartOfDay(), after.dateTimeKey(), after.getId(), pageLimits.probe(pageSize));
+
+        return KeysetCursor.toPage(meetings, pageSize,
+                meeting -> KeysetCursor.of(meeting.getStartTime(), meeting.getId()), this::mapToDTO);
     }
 
     private MeetingDTO mapToDTO(Meeting meeting) {
@@ -0,0 +1,302 @@
+package com.employee.service;
+
+import com.employee.dto.DailyStatsDTO;
+import com.employee.dto.StatisticsCacheStatsDTO;
+import com.employee.dto.meeting.MeetingDTO;
+import com.employee.dto.user.UserAttendanceStatsDTO;
+import com.employee.dto.user.UserDTO;
+import com.employee.dto.user.UserStatisticsDTO;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayKey;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+// Bounded cache of per-user statistics keyed by user and range, for managers reloading the
+// same report. Entries expire after a TTL and the least recently used ones are evicted past
+// the size limit. A write invalidates only the entries of its user whose range contains the
+// written day, once its transaction has committed; a version kept per user while a load for
+// that user is running keeps a result computed concurrently with a write from being cached
+// after the invalidation. The reports are mutable DTOs, so the cache keeps its own copy and
+// hands out a fresh copy on every hit.
+@Component
+public class StatisticsResultCache {
+    private final boolean enabled;
+    private final Region<UserAttendanceStatsDTO> attendance;
+    private final Region<UserStatisticsDTO> timesheet;
+
+    public StatisticsResultCache(
+            @Value("${statistics.cache.enabled:true}") boolean enabled,
+            @Value("${statistics.cache.max-entries:10000}") int maxEntries,
+            @Value("${statistics.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.attendance = new Region<>("attendance-user-stats", maxEntries, ttlSeconds,
+                StatisticsResultCache::copyAttendanceStats);
+        this.timesheet = new Region<>("timesheet-user-stats", maxEntries, ttlSeconds,
+                StatisticsResultCache::copyTimesheetStats);
+    }
+
+    public UserAttendanceStatsDTO attendanceStats(
+            Long userId, LocalDate startDate, LocalDate endDate, Supplier<UserAttendanceStatsDTO> loader) {
+        return enabled ? attendance.get(userId, startDate, endDate, loader) : loader.get();
+    }
+
+    public UserStatisticsDTO timesheetStats(
+            Long userId, LocalDate startDate, LocalDate endDate, Supplier<UserStatisticsDTO> loader) {
+        return enabled ? timesheet.get(userId, startDate, endDate, loader) : loader.get();
+    }
+
+    // Attendance records and time entries of these user days changed; both feed both reports
+    public void invalidateDays(Collection<DayKey> keys) {
+        List<DayKey> changed = List.copyOf(keys);
+        afterCommit(() -> changed.forEach(key -> {
+            attendance.invalidate(key.getUserId(), key.getWorkDate());
+            timesheet.invalidate(key.getUserId(), key.getWorkDate());
+        }));
+    }
+
+    // Meetings only appear in the timesheet statistics
+    public void invalidateMeeting(Collection<Long> participantIds, LocalDate date) {
+        List<Long> participants = List.copyOf(participantIds);
+        afterCommit(() -> participants.forEach(userId -> timesheet.invalidate(userId, date)));
+    }
+
+    // Profile changes show up in every cached report of the user
+    public void invalidateUser(Long userId) {
+        afterCommit(() -> {
+            attendance.invalidate(userId, null);
+            timesheet.invalidate(userId, null);
+        });
+    }
+
+    public List<StatisticsCacheStatsDTO> getStats() {
+        return List.of(attendance.stats(), timesheet.stats());
+    }
+
+    private static UserAttendanceStatsDTO copyAttendanceStats(UserAttendanceStatsDTO stats) {
+        return stats.toBuilder()
+                .dailyStats(stats.getDailyStats() == null ? null : stats.getDailyStats().stream()
+                        .map(day -> day.toBuilder().build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private static UserStatisticsDTO copyTimesheetStats(UserStatisticsDTO stats) {
+        return stats.toBuilder()
+                .user(copyUser(stats.getUser()))
+                .hoursPerDay(stats.getHoursPerDay() == null ? null : new HashMap<>(stats.getHoursPerDay()))
+                .upcomingMeetings(stats.getUpcomingMeetings() == null ? null : stats.getUpcomingMeetings().stream()
+                        .map(StatisticsResultCache::copyMeeting)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private static MeetingDTO copyMeeting(MeetingDTO meeting) {
+        return meeting.toBuilder()
+                .createdBy(copyUser(meeting.getCreatedBy()))
+                .participants(meeting.getParticipants() == null ? null : meeting.getParticipants().stream()
+                        .map(StatisticsResultCache::copyUser)
+                        .collect(Collectors.toSet()))
+                .build();
+    }
+
+    private static UserDTO copyUser(UserDTO user) {
+        return user == null ? null : user.toBuilder().build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Region<V> {
+        private final String name;
+        private final int maxEntries;
+        private final long ttlSeconds;
+        private final long ttlNanos;
+        private final UnaryOperator<V> copier;
+
+        // Access order, so the first entry is the least recently used
+        private final LinkedHashMap<Key, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<Long, Set<Key>> keysByUser = new HashMap<>();
+        // Only users with a load running; removed when their last load finishes
+        private final Map<Long, Load> loads = new HashMap<>();
+
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long expirations;
+        private long invalidations;
+
+        Region(String name, int maxEntries, long ttlSeconds, UnaryOperator<V> copier) {
+            this.name = name;
+            this.maxEntries = maxEntries;
+            this.ttlSeconds = ttlSeconds;
+            this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+            this.copier = copier;
+        }
+
+        V get(Long userId, LocalDate startDate, LocalDate endDate, Supplier<V> loader) {
+            Key key = new Key(userId, startDate, endDate);
+            Entry<V> entry;
+            Load load;
+            long version;
+            synchronized (this) {
+                entry = entries.get(key);
+                if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                    remove(key);
+                    expirations++;
+                    entry = null;
+                }
+                if (entry != null) {
+                    hits++;
+                    load = null;
+                    version = 0;
+                } else {
+                    misses++;
+                    load = loads.computeIfAbsent(userId, id -> new Load());
+                    load.running++;
+                    version = load.version;
+                }
+            }
+            if (entry != null) {
+                return copier.apply(entry.value);
+            }
+
+            // Computed outside the lock; a failure is not cached
+            V value;
+            try {
+                value = loader.get();
+            } catch (RuntimeException e) {
+                finishLoad(userId, load);
+                throw e;
+            }
+
+            V cached = copier.apply(value);
+            synchronized (this) {
+                if (load.version == version) {
+                    entries.put(key, new Entry<>(cached, System.nanoTime() + ttlNanos));
+                    keysByUser.computeIfAbsent(userId, id -> new HashSet<>()).add(key);
+                    evictOverflow();
+                }
+                finishLoad(userId, load);
+            }
+            return value;
+        }
+
+        // Drops the user's entries whose range contains the date, or all of them for a null date
+        synchronized void invalidate(Long userId, LocalDate date) {
+            Load load = loads.get(userId);
+            if (load != null) {
+                load.version++;
+            }
+            Set<Key> keys = keysByUser.get(userId);
+            if (keys == null) {
+                return;
+            }
+            Iterator<Key> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                Key key = iterator.next();
+                if (date == null || (!date.isBefore(key.startDate) && !date.isAfter(key.endDate))) {
+                    entries.remove(key);
+                    iterator.remove();
+                    invalidations++;
+                }
+            }
+            if (keys.isEmpty()) {
+                keysByUser.remove(userId);
+            }
+        }
+
+        synchronized StatisticsCacheStatsDTO stats() {
+            long lookups = hits + misses;
+            return StatisticsCacheStatsDTO.builder()
+                    .name(name)
+                    .size(entries.size())
+                    .maxEntries(maxEntries)
+                    .ttlSeconds(ttlSeconds)
+                    .hits(hits)
+                    .misses(misses)
+                    .hitRate(lookups > 0 ? (double) hits / lookups : 0.0)
+                    .evictions(evictions)
+                    .expirations(expirations)
+                    .invalidations(invalidations)
+                    .build();
+        }
+
+        private synchronized void finishLoad(Long userId, Load load) {
+            if (--load.running == 0) {
+                loads.remove(userId);
+            }
+        }
+
+        private void evictOverflow() {
+            Iterator<Key> eldest = entries.keySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                Key key = eldest.next();
+                eldest.remove();
+                removeFromUser(key);
+                evictions++;
+            }
+        }
+
+        private void remove(Key key) {
+            entries.remove(key);
+            removeFromUser(key);
+        }
+
+        private void removeFromUser(Key key) {
+            Set<Key> keys = keysByUser.get(key.userId);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByUser.remove(key.userId);
+                }
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static final class Key {
+        private final Long userId;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+    }
+
+    // Loads of one user in progress and the invalidations seen while they ran
+    private static final class Load {
+        private int running;
+        private long version;
+    }
+
+    @AllArgsConstructor
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+    }
+}
@@ -0,0 +1,119 @@
+package com.employee.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+
+// Splits long report ranges into month slices that are queried and reduced concurrently,
+// then merged. The pool is small and dedicated, so sliced reports never hold more than its
+// size in connections; when its queue is full, the report is refused as busy rather than run
+// on the request thread, which would lift that limit. Ranges up to the threshold are computed
+// directly on the caller like any other request.
+@Component
+@Slf4j
+public class StatisticsSliceExecutor {
+    private final ThreadPoolExecutor executor;
+    private final long thresholdDays;
+    private final int sliceMonths;
+
+    public StatisticsSliceExecutor(
+            @Value("${statistics.slice.parallelism:4}") int parallelism,
+            @Value("${statistics.slice.queue-capacity:64}") int queueCapacity,
+            @Value("${statistics.slice.threshold-days:93}") long thresholdDays,
+            @Value("${statistics.slice.months:1}") int sliceMonths) {
+        this.thresholdDays = thresholdDays;
+        this.sliceMonths = Math.max(1, sliceMonths);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                parallelism,
+                parallelism,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "statistics-slice-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Applies the slice function to each part of [startDate, endDate] and merges the results
+    public <T> T mapReduce(
+            LocalDate startDate,
+            LocalDate endDate,
+            BiFunction<LocalDate, LocalDate, T> slice,
+            BinaryOperator<T> merge) {
+
+        List<LocalDate[]> slices = split(startDate, endDate);
+        if (slices.size() == 1) {
+            return slice.apply(startDate, endDate);
+        }
+
+        List<CompletableFuture<T>> futures = new ArrayList<>(slices.size());
+        try {
+            for (LocalDate[] range : slices) {
+                futures.add(CompletableFuture.supplyAsync(() -> slice.apply(range[0], range[1]), executor));
+            }
+        } catch (RejectedExecutionException e) {
+            // Slices already queued are skipped once cancelled
+            futures.forEach(future -> future.cancel(false));
+            log.warn("Statistics pool is saturated, refusing a report over {} to {}", startDate, endDate);
+            throw new RuntimeException("Too many reports in progress, try again later");
+        }
+
+        try {
+            T result = futures.get(0).join();
+            for (int i = 1; i < futures.size(); i++) {
+                result = merge.apply(result, futures.get(i).join());
+            }
+            return result;
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Calendar-aligned slices of sliceMonths months; short ranges stay in one piece
+    private List<LocalDate[]> split(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate[]> slices = new ArrayList<>();
+        if (startDate.isAfter(endDate) || startDate.plusDays(thresholdDays).isAfter(endDate)) {
+            slices.add(new LocalDate[]{startDate, endDate});
+            return slices;
+        }
+
+        LocalDate from = startDate;
+        while (!from.isAfter(endDate)) {
+            LocalDate to = from.withDayOfMonth(1).plusMonths(sliceMonths).minusDays(1);
+            if (to.isAfter(endDate)) {
+                to = endDate;
+            }
+            slices.add(new LocalDate[]{from, to});
+            from = to.plusDays(1);
+        }
+        return slices;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -2,38 +2,75 @@ package com.employee.service;
 
 import com.employee.dto.*;
 import com.employee.dto.meeting.MeetingDTO;
+import com.employee.dto.timesheet.GraphBucket;
 import com.employee.dto.timesheet.TimeEntryAggregateDTO;
 import com.employee.dto.timesheet.TimeEntryDTO;
+import com.employee.dto.timesheet.TimeEntryExportDTO;
 import com.employee.dto.timesheet.TimeEntryRequest;
+import com.employee.dto.timesheet.WeeklyTimesheetRequest;
 import com.employee.dto.user.UserDTO;
 import com.employee.dto.user.UserStatisticsDTO;
 import com.employee.model.meeting.Meeting;
 import com.employee.model.timesheet.TimeEntry;
 import com.employee.model.user.User;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayKey;
 import com.employee.repository.MeetingRepository;
+import com.employee.repository.TimeEntryJdbcRepository;
 import com.employee.repository.TimeEntryRepository;
 import com.employee.repository.UserRepository;
+import com.employee.repository.projection.DailyHoursView;
+import com.employee.repository.projection.UserHoursView;
+import com.employee.service.attendance.AttendanceRollupService;
+import com.employee.service.pagination.KeysetCursor;
+import com.employee.service.pagination.PageLimits;
+import com.employee.service.period.PeriodCloseService;
+import com.employee.service.period.PeriodPlan;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TimeEntryService {
     private final TimeEntryRepository timeEntryRepository;
+    private final TimeEntryJdbcRepository timeEntryJdbcRepository;
     private final UserRepository userRepository;
     private  final MeetingRepository meetingRepository;
+    private final AttendanceRollupService rollupService;
+    private final StatisticsSliceExecutor sliceExecutor;
+    private final PeriodCloseService periodCloseService;
+    private final StatisticsResultCache statisticsResultCache;
+    private final PageLimits pageLimits;
+    private final JsonArrayStreamer jsonArrayStreamer;
+    private final EntityManager entityManager;
 
+    @Value("${timesheet.max-hours-per-day:24}")
+    private double maxHoursPerDay;
+
+    @Value("${timesheet.week.max-entries:200}")
+    private int maxWeekEntries;
+
+    @Transactional
     public TimeEntryDTO logTime(String userEmail, TimeEntryRequest request) {
         if (request.getDate().isAfter(LocalDate.now())) {
             throw new IllegalArgumentException("Cannot log time for future dates");
         }
+        periodCloseService.assertOpen(request.getDate());
 
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -46,9 +83,11 @@ public class TimeEntryService {
                 .build();
 
         timeEntry = timeEntryRepository.save(timeEntry);
+        rollupService.refresh(user.getId(), timeEntry.getDate());
         return mapToDTO(timeEntry);
     }
 
+    @Transactional
     public TimeEntryDTO updateTimeEntry(String userEmail, Long timeEntryId, TimeEntryRequest request) {
         TimeEntry timeEntry = timeEntryRepository.findById(timeEntryId)
                 .orElseThrow(() -> new RuntimeException("Time entry not found"));
@@ -60,23 +99,95 @@ public class TimeEntryService {
         if (request.getDate().isAfter(LocalDate.now())) {
             throw new IllegalArgumentException("Cannot log time for future dates");
         }
+        periodCloseService.assertOpen(timeEntry.getDate());
+        periodCloseService.assertOpen(request.getDate());
 
+        LocalDate previousDate = timeEntry.getDate();
         timeEntry.setDate(request.getDate());
         timeEntry.setHours(request.getHours());
         timeEntry.setDescription(request.getDescription());
 
-        timeEntry = timeEntryRepository.save(timeEntry);
+        // Flush so the rollup refresh below sees the new hours
+        timeEntry = timeEntryRepository.saveAndFlush(timeEntry);
+        rollupService.refresh(timeEntry.getUser().getId(), timeEntry.getDate());
+        if (!previousDate.equals(timeEntry.getDate())) {
+            rollupService.refresh(timeEntry.getUser().getId(), previousDate);
+        }
         return mapToDTO(timeEntry);
     }
 
-    public List<TimeEntryDTO> getTimeEntries(String userEmail, LocalDate startDate, LocalDate endDate) {
+    // Validates the whole week before writing anything, then inserts every entry with one
+    // multi-row statement and refreshes each touched day once
+    @Transactional
+    public List<TimeEntryDTO> submitWeek(String userEmail, WeeklyTimesheetRequest request) {
+        List<TimeEntryRequest> entries = request.getEntries();
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("Timesheet contains no entries");
+        }
+        if (entries.size() > maxWeekEntries) {
+            throw new IllegalArgumentException("Timesheet exceeds the maximum of " + maxWeekEntries + " entries");
+        }
+
+        LocalDate today = LocalDate.now();
+        TreeMap<LocalDate, Double> days = new TreeMap<>();
+        for (TimeEntryRequest entry : entries) {
+            if (entry.getDate() == null || entry.getHours() == null) {
+                throw new IllegalArgumentException("Every entry needs a date and hours");
+            }
+            if (entry.getHours() <= 0) {
+                throw new IllegalArgumentException("Hours must be positive for " + entry.getDate());
+            }
+            if (entry.getDate().isAfter(today)) {
+                throw new IllegalArgumentException("Cannot log time for future dates");
+            }
+            days.merge(entry.getDate(), entry.getHours(), Double::sum);
+        }
+
+        LocalDate firstDay = days.firstKey();
+        LocalDate lastDay = days.lastKey();
+        if (ChronoUnit.DAYS.between(firstDay, lastDay) >= 7) {
+            throw new IllegalArgumentException("Timesheet entries must fall within one week");
+        }
+        days.keySet().forEach(periodCloseService::assertOpen);
+
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // The cap covers what is already logged on each day as well
+        for (DailyHoursView logged : timeEntryRepository.sumHoursByDay(user.getId(), firstDay, lastDay)) {
+            if (logged.getHours() != null) {
+                days.computeIfPresent(logged.getDate(), (day, hours) -> hours + logged.getHours());
+            }
+        }
+        days.forEach((day, hours) -> {
+            if (hours > maxHoursPerDay) {
+                throw new IllegalArgumentException(
+                        "Logged hours for " + day + " would exceed " + maxHoursPerDay + " hours");
+            }
+        });
+
+        List<TimeEntryDTO> inserted = timeEntryJdbcRepository.insertAll(user.getId(), entries, LocalDateTime.now());
+        rollupService.refresh(days.keySet().stream()
+                .map(day -> new DayKey(user.getId(), day))
+                .toList());
+        return inserted;
+    }
+
+    // Keyset-paginated on (date, id), newest first
+    public CursorPageDTO<TimeEntryDTO> getTimeEntries(
+            String userEmail, LocalDate startDate, LocalDate endDate, String cursor, Integer limit) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return timeEntryRepository.findByUserAndDateBetweenOrderByDateDesc(user, startDate, endDate)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        KeysetCursor after = cursor != null
+                ? KeysetCursor.decode(cursor)
+                : KeysetCursor.of(endDate, Long.MAX_VALUE);
+        int pageSize = pageLimits.pageSize(limit);
+        List<TimeEntry> entries = timeEntryRepository.findUserPage(
+                user.getId(), startDate, after.dateKey(), after.getId(), pageLimits.probe(pageSize));
+
+        return KeysetCursor.toPage(entries, pageSize,
+                entry -> KeysetCursor.of(entry.getDate(), entry.getId()), this::mapToDTO);
     }
 
     private TimeEntryDTO mapToDTO(TimeEntry timeEntry) {
@@ -90,17 +201,13 @@ public class TimeEntryService {
                 .build();
     }
 
-    public List<TimeEntryAggregateDTO> getTimeEntriesForGraph(String userEmail, LocalDate startDate, LocalDate endDate) {
+    // One point per bucket, gap-filled and oldest first, grouped in the database
+    public List<TimeEntryAggregateDTO> getTimeEntriesForGraph(
+            String userEmail, LocalDate startDate, LocalDate endDate, GraphBucket bucket) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return timeEntryRepository.findByUserAndDateBetweenOrderByDateDesc(user, startDate, endDate)
-                .stream()
-                .map(entry -> TimeEntryAggregateDTO.builder()
-                        .date(entry.getDate())
-                        .hours(entry.getHours())
-                        .build())
-                .collect(Collectors.toList());
+        return timeEntryJdbcRepository.sumHoursByBucket(user.getId(), startDate, endDate, bucket);
     }
 
     public Map<String, Double> getMonthlyTotal(String userEmail, int year, int month) {
@@ -110,56 +217,90 @@ public class TimeEntryService {
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.plusMonths(1).minusDays(1);
 
-        Double totalHours = timeEntryRepository
-                .findByUserAndDateBetweenOrderByDateDesc(user, startDate, endDate)
-                .stream()
-                .mapToDouble(TimeEntry::getHours)
-                .sum();
+        // A closed month is answered from its snapshot
+        if (periodCloseService.isClosed(startDate)) {
+            double[] snapshotHours = new double[1];
+            periodCloseService.forEachSnapshot(user.getId(), List.of(startDate), false,
+                    snapshot -> snapshotHours[0] += snapshot.getTrackedHours());
+            return Map.of("totalHours", snapshotHours[0]);
+        }
 
-        return Map.of("totalHours", totalHours);
+        return Map.of("totalHours", timeEntryRepository.sumHours(user.getId(), startDate, endDate));
     }
 
+    // Built from grouped sums and counts only, so memory follows the number of users and days
+    // in the range rather than the number of entries or meetings
     public AdminStatisticsDTO getAdminStatistics(LocalDate startDate, LocalDate endDate) {
-        List<User> allUsers = userRepository.findAll();
-        List<TimeEntry> timeEntries = timeEntryRepository.findByDateBetweenOrderByDateDesc(startDate, endDate);
-        List<Meeting> meetings = meetingRepository.findByStartTimeBetweenOrderByStartTimeDesc(
+        long totalUsers = userRepository.count();
+        long totalMeetings = meetingRepository.countByStartTimeBetween(
                 startDate.atStartOfDay(),
                 endDate.atTime(23, 59, 59)
         );
 
-        Map<String, Double> hoursPerUser = timeEntries.stream()
-                .collect(Collectors.groupingBy(
-                        entry -> entry.getUser().getEmail(),
-                        Collectors.summingDouble(TimeEntry::getHours)
-                ));
+        Map<Long, Double> hoursPerUserId = new HashMap<>();
+        Map<Long, String> emails = new HashMap<>();
+        Map<LocalDate, Double> hoursPerDay = new HashMap<>();
+        long[] totalTimeEntries = new long[1];
+
+        // Closed months come from their snapshots, only the open part of the range is queried
+        PeriodPlan plan = periodCloseService.plan(startDate, endDate);
+        periodCloseService.forEachSnapshot(null, plan.getClosedMonths(), true, snapshot -> {
+            if (snapshot.getEntryCount() == 0) {
+                return;
+            }
+            hoursPerUserId.merge(snapshot.getUserId(), snapshot.getTrackedHours(), Double::sum);
+            totalTimeEntries[0] += snapshot.getEntryCount();
+            periodCloseService.decodeDays(snapshot).stream()
+                    .filter(day -> day.getEntryCount() > 0)
+                    .forEach(day -> hoursPerDay.merge(day.getDate(), day.getTrackedHours(), Double::sum));
+        });
+
+        for (PeriodPlan.DateRange range : plan.getOpenRanges()) {
+            for (UserHoursView user : timeEntryRepository.sumHoursByUser(range.getFrom(), range.getTo())) {
+                hoursPerUserId.merge(user.getUserId(), user.getHours(), Double::sum);
+                emails.put(user.getUserId(), user.getEmail());
+            }
+            for (DailyHoursView day : timeEntryRepository.sumHoursByDayForAllUsers(range.getFrom(), range.getTo())) {
+                hoursPerDay.merge(day.getDate(), day.getHours(), Double::sum);
+                totalTimeEntries[0] += day.getEntries();
+            }
+        }
 
-        Map<LocalDate, Double> hoursPerDay = timeEntries.stream()
-                .collect(Collectors.groupingBy(
-                        TimeEntry::getDate,
-                        Collectors.summingDouble(TimeEntry::getHours)
-                ));
+        // Users seen only in snapshots
+        List<Long> unresolved = hoursPerUserId.keySet().stream()
+                .filter(userId -> !emails.containsKey(userId))
+                .toList();
+        if (!unresolved.isEmpty()) {
+            userRepository.findEmailsByIdIn(unresolved)
+                    .forEach(user -> emails.put(user.getId(), user.getEmail()));
+        }
 
-        Double totalHours = timeEntries.stream()
-                .mapToDouble(TimeEntry::getHours)
+        Map<String, Double> hoursPerUser = new HashMap<>();
+        hoursPerUserId.forEach((userId, hours) -> hoursPerUser.merge(emails.get(userId), hours, Double::sum));
+
+        Double totalHours = hoursPerUser.values().stream()
+                .mapToDouble(Double::doubleValue)
                 .sum();
 
         return AdminStatisticsDTO.builder()
                 .totalHoursLogged(totalHours)
-                .totalUsers(allUsers.size())
-                .totalTimeEntries(timeEntries.size())
-                .totalMeetings(meetings.size())
+                .totalUsers((int) totalUsers)
+                .totalTimeEntries((int) totalTimeEntries[0])
+                .totalMeetings((int) totalMeetings)
                 .hoursPerUser(hoursPerUser)
                 .hoursPerDay(hoursPerDay)
                 .build();
     }
 
     public UserStatisticsDTO getUserStatistics(Long userId, LocalDate startDate, LocalDate endDate) {
+        return statisticsResultCache.timesheetStats(userId, startDate, endDate,
+                () -> computeUserStatistics(userId, startDate, endDate));
+    }
+
+    private UserStatisticsDTO computeUserStatistics(Long userId, LocalDate startDate, LocalDate endDate) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<TimeEntry> timeEntries = timeEntryRepository
-                .findByUserAndDateBetweenOrderByDateDesc(user, startDate, endDate);
-
         List<Meeting> meetings = meetingRepository
                 .findByParticipantsContainingAndStartTimeBetween(
                         user,
@@ -167,20 +308,29 @@ public class TimeEntryService {
                         endDate.atTime(23, 59, 59)
                 );
 
-        Map<LocalDate, Double> hoursPerDay = timeEntries.stream()
-                .collect(Collectors.groupingBy(
-                        TimeEntry::getDate,
-                        Collectors.summingDouble(TimeEntry::getHours)
-                ));
+        // Long ranges are summed per month slice on the statistics pool
+        Map<LocalDate, DailyHoursView> dailyHours = sliceExecutor.mapReduce(
+                startDate,
+                endDate,
+                (from, to) -> timeEntryRepository.sumHoursByDay(userId, from, to).stream()
+                        .collect(Collectors.toMap(DailyHoursView::getDate, day -> day)),
+                (left, right) -> {
+                    left.putAll(right);
+                    return left;
+                });
+
+        Map<LocalDate, Double> hoursPerDay = new HashMap<>();
+        int totalTimeEntries = 0;
+        for (DailyHoursView day : dailyHours.values()) {
+            hoursPerDay.put(day.getDate(), day.getHours() != null ? day.getHours() : 0.0);
+            totalTimeEntries += day.getEntries().intValue();
+        }
 
-        Double totalHours = timeEntries.stream()
-                .mapToDouble(TimeEntry::getHours)
+        Double totalHours = hoursPerDay.values().stream()
+                .mapToDouble(Double::doubleValue)
                 .sum();
 
-        long daysWithEntries = timeEntries.stream()
-                .map(TimeEntry::getDate)
-                .distinct()
-                .count();
+        long daysWithEntries = hoursPerDay.size();
 
         Double averageHoursPerDay = daysWithEntries > 0
                 ? totalHours / daysWithEntries
@@ -194,7 +344,7 @@ public class TimeEntryService {
         return UserStatisticsDTO.builder()
                 .user(mapUserToDTO(user))
                 .totalHoursLogged(totalHours)
-                .totalTimeEntries(timeEntries.size())
+                .totalTimeEntries(totalTimeEntries)
                 .totalMeetings(meetings.size())
                 .hoursPerDay(hoursPerDay)
                 .upcomingMeetings(upcomingMeetings.stream()
@@ -232,7 +382,31 @@ public class TimeEntryService {
                 .build();
     }
 
-    public List<TimeEntry> getAllTimeEntries(LocalDate startDate, LocalDate endDate) {
-        return timeEntryRepository.findByDateBetweenOrderByDateDesc(startDate, endDate);
+    // Visits every entry of the range, newest first, through a database cursor and detaches each
+    // one after the visitor has seen it, so exports of any size run in constant memory
+    @Transactional(readOnly = true)
+    public void forEachTimeEntry(LocalDate startDate, LocalDate endDate, Consumer<TimeEntry> visitor) {
+        try (Stream<TimeEntry> entries = timeEntryRepository.streamByDateBetween(startDate, endDate)) {
+            entries.forEach(entry -> {
+                visitor.accept(entry);
+                entityManager.detach(entry);
+            });
+        }
+    }
+
+    // Every user's entries in the range as one JSON array written to out while it is read
+    public void streamAllTimeEntries(LocalDate startDate, LocalDate endDate, OutputStream out) {
+        jsonArrayStreamer.write(out,
+                () -> timeEntryRepository.streamByDateBetween(startDate, endDate),
+                entry -> TimeEntryExportDTO.builder()
+                        .id(entry.getId())
+                        .userId(entry.getUser().getId())
+                        .userEmail(entry.getUser().getEmail())
+                        .date(entry.getDate())
+                        .hours(entry.getHours())
+                        .description(entry.getDescription())
+                        .createdAt(entry.getCreatedAt())
+                        .updatedAt(entry.getUpdatedAt())
+                        .build());
     }
 }
\ No newline at end of file
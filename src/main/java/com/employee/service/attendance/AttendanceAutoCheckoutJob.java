@@ -0,0 +1,62 @@
+package com.employee.service.attendance;
+
+import com.employee.repository.AttendanceRecordJdbcRepository;
+import com.employee.repository.AttendanceRecordJdbcRepository.ClosedRecord;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayKey;
+import com.employee.repository.AttendanceRollupJdbcRepository.HistogramEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Nightly job closing forgotten check-outs across the whole attendance_records table.
+// Records still checked in from previous days are checked out after a standard workday
+// with a single set-based UPDATE; the affected daily rollups are refreshed in the same transaction.
+// Office occupancy only counts today's check-ins, so closing earlier days leaves it alone.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceAutoCheckoutJob {
+    private final AttendanceRecordJdbcRepository attendanceRecordJdbcRepository;
+    private final AttendanceRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${attendance.workday-hours:8}")
+    private int workdayHours;
+
+    @Scheduled(cron = "${attendance.auto-checkout.cron:0 5 0 * * *}")
+    public void runNightly() {
+        try {
+            closeStaleRecords();
+        } catch (Exception e) {
+            log.error("Nightly auto check-out failed", e);
+        }
+    }
+
+    // Returns the number of records that were closed
+    public int closeStaleRecords() {
+        List<ClosedRecord> closed = transactionTemplate.execute(status -> {
+            List<ClosedRecord> records = attendanceRecordJdbcRepository.autoCheckOutStaleRecords(
+                    LocalDate.now().atStartOfDay(),
+                    workdayHours * 60
+            );
+            rollupService.refresh(records.stream()
+                    .map(record -> new DayKey(record.getUserId(), record.getCheckInDate()))
+                    .toList());
+            rollupService.addToHistograms(records.stream()
+                    .filter(record -> record.getOfficeId() != null)
+                    .map(record -> HistogramEvent.checkOut(
+                            record.getOfficeId(), record.getCheckInTime(), record.getCheckOutTime()))
+                    .toList());
+            return records;
+        });
+
+        log.info("Auto checked-out {} stale attendance records ({}-hour workday)", closed.size(), workdayHours);
+        return closed.size();
+    }
+}
@@ -0,0 +1,417 @@
+package com.employee.service.attendance;
+
+import com.employee.dto.checkin.AttendanceEventType;
+import com.employee.dto.checkin.BatchAttendanceEvent;
+import com.employee.dto.checkin.BatchAttendanceRequest;
+import com.employee.dto.checkin.BatchAttendanceResponse;
+import com.employee.dto.checkin.BatchAttendanceResultDTO;
+import com.employee.model.attendance.AttendanceStatus;
+import com.employee.model.attendance.AttendanceTransition;
+import com.employee.model.checkin.OfficeLocation;
+import com.employee.repository.AttendanceRecordJdbcRepository;
+import com.employee.repository.AttendanceRecordJdbcRepository.CheckInRow;
+import com.employee.repository.AttendanceRecordJdbcRepository.CheckOutRow;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayKey;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayRecord;
+import com.employee.repository.AttendanceRollupJdbcRepository.HistogramEvent;
+import com.employee.repository.UserRepository;
+import com.employee.repository.projection.UserNameView;
+import com.employee.service.period.PeriodCloseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Bulk ingestion of buffered badge reader / kiosk taps.
+// Events are validated in device-time order against the same rules as AttendanceService
+// using one prefetch of the affected users' records, then written with JDBC batches.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceBatchService {
+    private final AttendanceRecordJdbcRepository attendanceRecordJdbcRepository;
+    private final UserRepository userRepository;
+    private final OfficeLocationIndex officeLocationIndex;
+    private final AttendanceStateStore stateStore;
+    private final TransactionTemplate transactionTemplate;
+    private final GeofenceRejectionBuffer geofenceRejectionBuffer;
+    private final OfficeOccupancyTracker occupancyTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AttendanceRollupService rollupService;
+    private final PeriodCloseService periodCloseService;
+    private final Optional<CheckInWriteBehindService> writeBehind;
+
+    @Value("${attendance.batch.max-events:10000}")
+    private int maxEvents;
+
+    @Value("${attendance.batch.max-clock-skew-minutes:5}")
+    private long maxClockSkewMinutes;
+
+    public BatchAttendanceResponse ingest(BatchAttendanceRequest request) {
+        List<BatchAttendanceEvent> events = request.getEvents();
+        if (events == null || events.isEmpty()) {
+            throw new RuntimeException("Batch contains no events");
+        }
+        if (events.size() > maxEvents) {
+            throw new RuntimeException("Batch exceeds the maximum of " + maxEvents + " events");
+        }
+
+        BatchAttendanceResultDTO[] results = new BatchAttendanceResultDTO[events.size()];
+        List<Integer> candidates = new ArrayList<>(events.size());
+        LocalDateTime latestAllowed = LocalDateTime.now().plusMinutes(maxClockSkewMinutes);
+
+        for (int i = 0; i < events.size(); i++) {
+            BatchAttendanceEvent event = events.get(i);
+            String error = validateShape(event, latestAllowed);
+            if (error != null) {
+                results[i] = rejected(i, event, error);
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            process(events, candidates, results);
+        }
+
+        int accepted = (int) Arrays.stream(results).filter(BatchAttendanceResultDTO::isAccepted).count();
+        log.info("Ingested attendance batch from device {}: {} accepted, {} rejected",
+                request.getDeviceId(), accepted, results.length - accepted);
+
+        return BatchAttendanceResponse.builder()
+                .accepted(accepted)
+                .rejected(results.length - accepted)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private void process(
+            List<BatchAttendanceEvent> events,
+            List<Integer> candidates,
+            BatchAttendanceResultDTO[] results) {
+
+        // Apply taps in the order they happened on the device
+        candidates.sort(Comparator.comparing((Integer i) -> events.get(i).getTimestamp())
+                .thenComparing(i -> i));
+
+        Set<Long> requestedUserIds = new HashSet<>();
+        LocalDate firstDay = null;
+        LocalDate lastDay = null;
+        for (int i : candidates) {
+            BatchAttendanceEvent event = events.get(i);
+            requestedUserIds.add(event.getUserId());
+            LocalDate day = event.getTimestamp().toLocalDate();
+            firstDay = firstDay == null || day.isBefore(firstDay) ? day : firstDay;
+            lastDay = lastDay == null || day.isAfter(lastDay) ? day : lastDay;
+        }
+
+        Map<Long, String> userNames = new HashMap<>();
+        for (UserNameView user : userRepository.findByIdIn(requestedUserIds)) {
+            userNames.put(user.getId(), user.getFirstName() + " " + user.getLastName());
+        }
+        Set<Long> knownUserIds = userNames.keySet();
+
+        // Check-ins accepted on this node but still in the write-behind journal are not in the
+        // database yet; write them first so the prefetch below sees them
+        writeBehind.ifPresent(CheckInWriteBehindService::flush);
+
+        // One state per user and day, seeded from the database
+        Map<Long, Map<LocalDate, DayState>> states = new HashMap<>();
+        if (!knownUserIds.isEmpty()) {
+            for (DayRecord record : attendanceRecordJdbcRepository.findDayRecords(
+                    knownUserIds, firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay())) {
+                states.computeIfAbsent(record.getUserId(), k -> new HashMap<>())
+                        .put(record.getCheckInTime().toLocalDate(), new DayState(
+                                record.getStatus(), record.getCheckInTime(), record.getOfficeId(), false));
+            }
+        }
+
+        Set<LocalDate> closedMonths = periodCloseService.closedMonths(firstDay, lastDay);
+        LocalDate today = LocalDate.now();
+        Map<Integer, CheckInRow> checkInRows = new HashMap<>();
+        Map<Integer, OfficeLocation> checkInOffices = new HashMap<>();
+        List<CheckOutRow> checkOuts = new ArrayList<>();
+        List<Integer> checkOutIndexes = new ArrayList<>();
+        List<Long> checkOutOfficeIds = new ArrayList<>();
+        List<Boolean> checkOutsOfCountedRecords = new ArrayList<>();
+        Map<Integer, LocalDateTime> checkOutCheckInTimes = new HashMap<>();
+
+        for (int i : candidates) {
+            BatchAttendanceEvent event = events.get(i);
+            if (!knownUserIds.contains(event.getUserId())) {
+                results[i] = rejected(i, event, "User not found");
+                continue;
+            }
+
+            LocalDate day = event.getTimestamp().toLocalDate();
+            if (closedMonths.contains(day.withDayOfMonth(1))) {
+                results[i] = rejected(i, event, "Period " + YearMonth.from(day) + " is closed");
+                continue;
+            }
+
+            Map<LocalDate, DayState> userStates = states.computeIfAbsent(event.getUserId(), k -> new HashMap<>());
+            DayState state = userStates.get(day);
+
+            if (event.getType() == AttendanceEventType.CHECK_IN) {
+                if (state != null && state.status == AttendanceStatus.CHECKED_IN) {
+                    results[i] = rejected(i, event, "You are already checked in. Please check out first.");
+                    continue;
+                } else if (state != null && state.status == AttendanceStatus.CHECKED_OUT) {
+                    results[i] = rejected(i, event, "You have already completed your attendance for today.");
+                    continue;
+                }
+
+                Optional<OfficeLocationIndex.OfficeMatch> match = officeLocationIndex.resolve(
+                        event.getLatitude(), event.getLongitude(), event.getOfficeId());
+                if (match.isEmpty()) {
+                    officeLocationIndex.nearest(event.getLatitude(), event.getLongitude())
+                            .ifPresent(nearest -> geofenceRejectionBuffer.record(
+                                    event.getUserId(),
+                                    nearest.getOffice().getId(),
+                                    event.getTimestamp(),
+                                    nearest.getDistanceMeters()));
+                    results[i] = rejected(i, event, "Location is outside office premises");
+                    continue;
+                }
+
+                OfficeLocation office = match.get().getOffice();
+                Long officeId = office.getId();
+                userStates.put(day, new DayState(AttendanceStatus.CHECKED_IN, event.getTimestamp(), officeId, true));
+                checkInRows.put(i, CheckInRow.builder()
+                        .userId(event.getUserId())
+                        .officeId(officeId)
+                        .checkInTime(event.getTimestamp())
+                        .latitude(event.getLatitude())
+                        .longitude(event.getLongitude())
+                        .build());
+                checkInOffices.put(i, office);
+                results[i] = accepted(i, event, officeId);
+            } else {
+                if (state == null) {
+                    results[i] = rejected(i, event, "No check-in record found for today");
+                    continue;
+                } else if (state.status == AttendanceStatus.CHECKED_OUT) {
+                    results[i] = rejected(i, event, "Already checked out for today");
+                    continue;
+                }
+
+                long minutesWorked = ChronoUnit.MINUTES.between(state.checkInTime, event.getTimestamp());
+                if (minutesWorked < AttendanceService.MINIMUM_WORK_MINUTES) {
+                    results[i] = rejected(i, event, "Minimum work duration not met");
+                    continue;
+                }
+
+                userStates.put(day, new DayState(
+                        AttendanceStatus.CHECKED_OUT, state.checkInTime, state.officeId, state.inBatch));
+                checkOuts.add(CheckOutRow.builder()
+                        .userId(event.getUserId())
+                        .workDate(day)
+                        .checkOutTime(event.getTimestamp())
+                        .latitude(event.getLatitude())
+                        .longitude(event.getLongitude())
+                        .notes(event.getNotes())
+                        .build());
+                checkOutIndexes.add(i);
+                checkOutOfficeIds.add(state.officeId);
+                checkOutsOfCountedRecords.add(!state.inBatch && today.equals(day));
+                checkOutCheckInTimes.put(i, state.checkInTime);
+                results[i] = accepted(i, event, state.officeId);
+            }
+        }
+
+        // Occupancy counts who is in the office today, so only today's check-ins still open once
+        // the whole batch is applied take a place; earlier days and check-ins closed again within
+        // the batch never do. Check-ins go first so check-outs in the same batch find their record.
+        List<CheckInRow> checkIns = new ArrayList<>();
+        List<Integer> checkInIndexes = new ArrayList<>();
+        Set<Integer> entered = new HashSet<>();
+        for (int i : candidates) {
+            CheckInRow row = checkInRows.get(i);
+            if (row == null) {
+                continue;
+            }
+            LocalDate day = row.getCheckInTime().toLocalDate();
+            if (today.equals(day) && states.get(row.getUserId()).get(day).status == AttendanceStatus.CHECKED_IN) {
+                OfficeLocation office = checkInOffices.get(i);
+                if (!occupancyTracker.tryEnter(office)) {
+                    results[i] = rejected(i, events.get(i), "Office " + office.getName() + " is at full capacity");
+                    continue;
+                }
+                entered.add(i);
+            }
+            checkIns.add(row);
+            checkInIndexes.add(i);
+        }
+
+        BatchWriteResult written;
+        try {
+            written = transactionTemplate.execute(status -> {
+                BatchWriteResult result = new BatchWriteResult(
+                        checkIns.isEmpty()
+                                ? Set.of()
+                                : attendanceRecordJdbcRepository.insertCheckIns(checkIns),
+                        checkOuts.isEmpty()
+                                ? new int[0]
+                                : attendanceRecordJdbcRepository.batchApplyCheckOuts(checkOuts));
+
+                // New check-ins only add to their rollups; days with a check-out are recomputed after that
+                List<CheckInRow> insertedRows = checkIns.stream()
+                        .filter(row -> result.insertedCheckIns.contains(
+                                new DayKey(row.getUserId(), row.getCheckInTime().toLocalDate())))
+                        .toList();
+                rollupService.recordCheckIns(insertedRows);
+                rollupService.refresh(checkOuts.stream()
+                        .map(row -> new DayKey(row.getUserId(), row.getWorkDate()))
+                        .toList());
+
+                List<HistogramEvent> histogramEvents = new ArrayList<>();
+                for (CheckInRow row : insertedRows) {
+                    histogramEvents.add(HistogramEvent.checkIn(row.getOfficeId(), row.getCheckInTime()));
+                }
+                for (int j = 0; j < result.checkOutCounts.length; j++) {
+                    Long officeId = checkOutOfficeIds.get(j);
+                    if (result.checkOutCounts[j] > 0 && officeId != null) {
+                        histogramEvents.add(HistogramEvent.checkOut(
+                                officeId,
+                                checkOutCheckInTimes.get(checkOutIndexes.get(j)),
+                                checkOuts.get(j).getCheckOutTime()));
+                    }
+                }
+                rollupService.addToHistograms(histogramEvents);
+                return result;
+            });
+        } catch (RuntimeException e) {
+            // Nothing was written, give back the places reserved by the check-ins
+            entered.forEach(i -> occupancyTracker.leave(results[i].getOfficeId()));
+            throw e;
+        }
+
+        // A concurrent check-in for the same user and day won the unique constraint
+        for (int i : checkInIndexes) {
+            BatchAttendanceEvent event = events.get(i);
+            if (!written.insertedCheckIns.contains(
+                    new DayKey(event.getUserId(), event.getTimestamp().toLocalDate()))) {
+                if (entered.contains(i)) {
+                    occupancyTracker.leave(results[i].getOfficeId());
+                }
+                results[i] = rejected(i, event, "You are already checked in. Please check out first.");
+            }
+        }
+
+        for (int j = 0; j < written.checkOutCounts.length; j++) {
+            if (written.checkOutCounts[j] == 0) {
+                int i = checkOutIndexes.get(j);
+                results[i] = rejected(i, events.get(i), "No active check-in record found for user");
+            } else if (checkOutsOfCountedRecords.get(j)) {
+                occupancyTracker.leave(checkOutOfficeIds.get(j));
+            }
+        }
+
+        // Today's state changed underneath the store, reload it on next access
+        for (int i : candidates) {
+            BatchAttendanceEvent event = events.get(i);
+            if (!results[i].isAccepted()) {
+                continue;
+            }
+            LocalDate day = event.getTimestamp().toLocalDate();
+            if (today.equals(day)) {
+                stateStore.evict(event.getUserId());
+            }
+
+            boolean checkIn = event.getType() == AttendanceEventType.CHECK_IN;
+            eventPublisher.publishEvent(AttendanceChangedEvent.builder()
+                    .type(checkIn ? AttendanceTransition.CHECKED_IN : AttendanceTransition.CHECKED_OUT)
+                    .userId(event.getUserId())
+                    .userName(userNames.get(event.getUserId()))
+                    .officeId(results[i].getOfficeId())
+                    .workDate(day)
+                    .checkInTime(checkIn ? event.getTimestamp() : checkOutCheckInTimes.get(i))
+                    .checkOutTime(checkIn ? null : event.getTimestamp())
+                    .build());
+        }
+    }
+
+    private String validateShape(BatchAttendanceEvent event, LocalDateTime latestAllowed) {
+        if (event == null) {
+            return "Event is empty";
+        }
+        if (event.getUserId() == null) {
+            return "User id is required";
+        }
+        if (event.getType() == null) {
+            return "Event type is required";
+        }
+        if (event.getTimestamp() == null) {
+            return "Timestamp is required";
+        }
+        if (event.getTimestamp().isAfter(latestAllowed)) {
+            return "Timestamp is in the future";
+        }
+        if (event.getType() == AttendanceEventType.CHECK_IN
+                && (event.getLatitude() == null || event.getLongitude() == null)) {
+            return "Location is required for check-in";
+        }
+        return null;
+    }
+
+    private BatchAttendanceResultDTO accepted(int index, BatchAttendanceEvent event, Long officeId) {
+        return BatchAttendanceResultDTO.builder()
+                .index(index)
+                .userId(event.getUserId())
+                .type(event.getType())
+                .accepted(true)
+                .officeId(officeId)
+                .build();
+    }
+
+    private BatchAttendanceResultDTO rejected(int index, BatchAttendanceEvent event, String message) {
+        return BatchAttendanceResultDTO.builder()
+                .index(index)
+                .userId(event != null ? event.getUserId() : null)
+                .type(event != null ? event.getType() : null)
+                .accepted(false)
+                .message(message)
+                .build();
+    }
+
+    private static final class BatchWriteResult {
+        final Set<DayKey> insertedCheckIns;
+        final int[] checkOutCounts;
+
+        BatchWriteResult(Set<DayKey> insertedCheckIns, int[] checkOutCounts) {
+            this.insertedCheckIns = insertedCheckIns;
+            this.checkOutCounts = checkOutCounts;
+        }
+    }
+
+    private static final class DayState {
+        final AttendanceStatus status;
+        final LocalDateTime checkInTime;
+        final Long officeId;
+        // Checked in by this batch rather than read from the database
+        final boolean inBatch;
+
+        DayState(AttendanceStatus status, LocalDateTime checkInTime, Long officeId, boolean inBatch) {
+            this.status = status;
+            this.checkInTime = checkInTime;
+            this.officeId = officeId;
+            this.inBatch = inBatch;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.employee.service.attendance;
+
+import com.employee.model.attendance.AttendanceTransition;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Published after an attendance transition has been written
+@Value
+@Builder
+public class AttendanceChangedEvent {
+    AttendanceTransition type;
+    Long userId;
+    String userName;
+    Long officeId;
+    LocalDate workDate;
+    LocalDateTime checkInTime;
+    LocalDateTime checkOutTime;
+}
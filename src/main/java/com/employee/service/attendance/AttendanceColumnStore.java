@@ -0,0 +1,431 @@
+package com.employee.service.attendance;
+
+import com.employee.dto.attendance.AnalyticsGroupBy;
+import com.employee.dto.attendance.AttendanceAnalyticsRowDTO;
+import com.employee.model.attendance.AttendanceStatus;
+import com.employee.repository.AttendanceRecordJdbcRepository;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayKey;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayRecord;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Optional in-memory columnar copy of attendance_records for ad-hoc analytics over the whole
+// history. Records are kept per check-in day in primitive columns (user id, office code,
+// check-in minute, duration minutes, status), about 11 bytes a record, so years of history
+// fit on the heap and a filter/group-by pass is a scan over a few arrays per day with no
+// entities or boxing. The store is loaded once at startup with a streaming query; afterwards
+// the user days refreshed by the write paths are reloaded from the database after their
+// transaction commits, in order, on a single worker thread.
+@Service
+@ConditionalOnProperty(name = "attendance.column-store.enabled", havingValue = "true")
+@Slf4j
+public class AttendanceColumnStore {
+    private static final short NO_OFFICE = -1;
+    private static final short NOT_CHECKED_OUT = -1;
+    private static final AttendanceStatus[] STATUSES = AttendanceStatus.values();
+
+    private final AttendanceRecordJdbcRepository attendanceRecordJdbcRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+    private final ExecutorService worker;
+
+    // Keyed by epoch day of the check-in
+    private final Map<Integer, DayBlock> blocks = new ConcurrentHashMap<>();
+    // Offices are stored as dense codes; officeIds maps a code back to the office id
+    private final Map<Long, Short> officeCodes = new ConcurrentHashMap<>();
+    private volatile long[] officeIds = new long[0];
+    private volatile int maxUserId;
+
+    private final Queue<DayKey> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean loaded;
+
+    public AttendanceColumnStore(
+            AttendanceRecordJdbcRepository attendanceRecordJdbcRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${attendance.column-store.fetch-size:10000}") int fetchSize) {
+        this.attendanceRecordJdbcRepository = attendanceRecordJdbcRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "attendance-column-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Loads in the background; changes arriving meanwhile queue up behind the load
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        worker.execute(() -> {
+            long started = System.currentTimeMillis();
+            try {
+                long[] count = new long[1];
+                readOnlyTransaction.executeWithoutResult(status ->
+                        attendanceRecordJdbcRepository.forEachRecord(fetchSize, record -> {
+                            append(record);
+                            count[0]++;
+                        }));
+                blocks.values().forEach(DayBlock::trim);
+                loaded = true;
+                log.info("Loaded {} attendance records over {} days into the column store in {} ms (~{} MB)",
+                        count[0], blocks.size(), System.currentTimeMillis() - started,
+                        memoryBytes() / (1024 * 1024));
+            } catch (Exception e) {
+                log.error("Failed to load the attendance column store", e);
+            }
+        });
+    }
+
+    // Called by the rollup refresh with the user days a write touched
+    public void onDaysChanged(Collection<DayKey> keys) {
+        List<DayKey> changed = List.copyOf(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(changed);
+                }
+            });
+        } else {
+            enqueue(changed);
+        }
+    }
+
+    // Aggregates the records of [from, to] matching the filters; null filters match everything.
+    // Without a status filter rejected check-ins (invalid location) are left out.
+    public List<AttendanceAnalyticsRowDTO> aggregate(
+            LocalDate from,
+            LocalDate to,
+            AnalyticsGroupBy groupBy,
+            Collection<Long> officeFilter,
+            Collection<Long> userFilter,
+            Collection<DayOfWeek> weekdayFilter,
+            Collection<AttendanceStatus> statusFilter) {
+        if (!loaded) {
+            throw new RuntimeException("Attendance analytics store is still loading");
+        }
+        if (from.isAfter(to)) {
+            throw new RuntimeException("Start date must not be after end date");
+        }
+
+        long[] offices = officeIds;
+        int groups = switch (groupBy) {
+            case NONE -> 1;
+            case OFFICE -> offices.length + 1;
+            case USER -> maxUserId + 1;
+            case WEEKDAY -> 7;
+            case DATE -> Math.toIntExact(to.toEpochDay() - from.toEpochDay() + 1);
+        };
+        Aggregation aggregation = new Aggregation(groupBy, groups);
+        aggregation.officeMask = officeFilter != null ? officeMask(officeFilter, offices.length) : null;
+        aggregation.users = userFilter != null
+                ? userFilter.stream().mapToInt(Math::toIntExact).sorted().distinct().toArray()
+                : null;
+        aggregation.statusMask = new boolean[STATUSES.length];
+        if (statusFilter != null) {
+            statusFilter.forEach(status -> aggregation.statusMask[status.ordinal()] = true);
+        } else {
+            Arrays.fill(aggregation.statusMask, true);
+            aggregation.statusMask[AttendanceStatus.INVALID_LOCATION.ordinal()] = false;
+        }
+
+        for (long day = from.toEpochDay(); day <= to.toEpochDay(); day++) {
+            DayBlock block = blocks.get((int) day);
+            if (block == null) {
+                continue;
+            }
+            DayOfWeek weekday = LocalDate.ofEpochDay(day).getDayOfWeek();
+            if (weekdayFilter != null && !weekdayFilter.contains(weekday)) {
+                continue;
+            }
+            block.aggregate(aggregation, (int) (day - from.toEpochDay()), weekday.ordinal());
+        }
+
+        List<AttendanceAnalyticsRowDTO> rows = new ArrayList<>();
+        for (int group = 0; group < groups; group++) {
+            if (aggregation.records[group] > 0) {
+                rows.add(toRow(aggregation, group, from, offices));
+            }
+        }
+        return rows;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Approximate heap taken by the columns
+    public long memoryBytes() {
+        return blocks.values().stream().mapToLong(DayBlock::capacityBytes).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void enqueue(List<DayKey> keys) {
+        pending.addAll(keys);
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    // Reloads the pending user days in one query and swaps their rows in
+    private void drain() {
+        Set<DayKey> keys = new HashSet<>();
+        try {
+            DayKey key;
+            while ((key = pending.poll()) != null) {
+                keys.add(key);
+            }
+            if (keys.isEmpty()) {
+                return;
+            }
+
+            Map<DayKey, List<DayRecord>> recordsByKey = new HashMap<>();
+            attendanceRecordJdbcRepository.forEachRecordOfDays(keys, record -> recordsByKey
+                    .computeIfAbsent(new DayKey(record.getUserId(), record.getCheckInTime().toLocalDate()),
+                            k -> new ArrayList<>())
+                    .add(record));
+
+            for (DayKey changed : keys) {
+                DayBlock block = blocks.computeIfAbsent((int) changed.getWorkDate().toEpochDay(), d -> new DayBlock());
+                int user = Math.toIntExact(changed.getUserId());
+                synchronized (block) {
+                    block.removeUser(user);
+                    recordsByKey.getOrDefault(changed, List.of()).forEach(record -> add(block, record));
+                }
+            }
+        } catch (Exception e) {
+            // Retried together with the next change
+            log.error("Failed to apply {} changed user days to the column store", keys.size(), e);
+            pending.addAll(keys);
+            return;
+        } finally {
+            scheduled.set(false);
+        }
+
+        // Changes queued while this drain was finishing
+        if (!pending.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void append(DayRecord record) {
+        int day = (int) record.getCheckInTime().toLocalDate().toEpochDay();
+        add(blocks.computeIfAbsent(day, d -> new DayBlock()), record);
+    }
+
+    // Only ever called from the worker thread
+    private void add(DayBlock block, DayRecord record) {
+        int user = Math.toIntExact(record.getUserId());
+        if (user > maxUserId) {
+            maxUserId = user;
+        }
+
+        short duration = NOT_CHECKED_OUT;
+        if (record.getCheckOutTime() != null) {
+            long minutes = Duration.between(record.getCheckInTime(), record.getCheckOutTime()).toMinutes();
+            duration = (short) Math.max(0, Math.min(Short.MAX_VALUE, minutes));
+        }
+
+        LocalTime checkIn = record.getCheckInTime().toLocalTime();
+        block.add(
+                user,
+                officeCode(record.getOfficeId()),
+                (short) (checkIn.getHour() * 60 + checkIn.getMinute()),
+                duration,
+                (byte) record.getStatus().ordinal());
+    }
+
+    private short officeCode(Long officeId) {
+        if (officeId == null) {
+            return NO_OFFICE;
+        }
+        Short code = officeCodes.get(officeId);
+        if (code == null) {
+            long[] extended = Arrays.copyOf(officeIds, officeIds.length + 1);
+            code = (short) officeIds.length;
+            extended[code] = officeId;
+            officeIds = extended;
+            officeCodes.put(officeId, code);
+        }
+        return code;
+    }
+
+    // Indexed by office code + 1, slot 0 being records without an office
+    private boolean[] officeMask(Collection<Long> officeFilter, int officeCount) {
+        boolean[] mask = new boolean[officeCount + 1];
+        for (Long officeId : officeFilter) {
+            Short code = officeCodes.get(officeId);
+            if (code != null && code < officeCount) {
+                mask[code + 1] = true;
+            }
+        }
+        return mask;
+    }
+
+    private AttendanceAnalyticsRowDTO toRow(Aggregation aggregation, int group, LocalDate from, long[] offices) {
+        long records = aggregation.records[group];
+        long checkedOut = aggregation.checkedOut[group];
+        long minutes = aggregation.minutes[group];
+        int averageCheckIn = (int) (aggregation.checkInMinutes[group] / records);
+
+        AttendanceAnalyticsRowDTO.AttendanceAnalyticsRowDTOBuilder row = AttendanceAnalyticsRowDTO.builder()
+                .records(records)
+                .checkedOut(checkedOut)
+                .attendanceMinutes(minutes)
+                .averageAttendanceHours(checkedOut > 0 ? minutes / 60.0 / checkedOut : 0.0)
+                .averageCheckIn(LocalTime.of(averageCheckIn / 60, averageCheckIn % 60));
+        switch (aggregation.groupBy) {
+            case OFFICE -> row.officeId(group > 0 ? offices[group - 1] : null);
+            case USER -> row.userId((long) group);
+            case WEEKDAY -> row.weekday(DayOfWeek.values()[group]);
+            case DATE -> row.date(from.plusDays(group));
+            default -> {
+            }
+        }
+        return row.build();
+    }
+
+    private static final class Aggregation {
+        final AnalyticsGroupBy groupBy;
+        final long[] records;
+        final long[] checkedOut;
+        final long[] minutes;
+        final long[] checkInMinutes;
+        boolean[] officeMask;
+        int[] users;
+        boolean[] statusMask;
+
+        Aggregation(AnalyticsGroupBy groupBy, int groups) {
+            this.groupBy = groupBy;
+            this.records = new long[groups];
+            this.checkedOut = new long[groups];
+            this.minutes = new long[groups];
+            this.checkInMinutes = new long[groups];
+        }
+    }
+
+    // Columns of one check-in day. Rows are unordered; a user's rows are replaced as a whole.
+    private static final class DayBlock {
+        private int size;
+        private int[] users = new int[16];
+        private short[] offices = new short[16];
+        private short[] checkInMinutes = new short[16];
+        private short[] durations = new short[16];
+        private byte[] statuses = new byte[16];
+
+        synchronized void add(int user, short office, short checkInMinute, short duration, byte status) {
+            if (size == users.length) {
+                resize(size * 2);
+            }
+            users[size] = user;
+            offices[size] = office;
+            checkInMinutes[size] = checkInMinute;
+            durations[size] = duration;
+            statuses[size] = status;
+            size++;
+        }
+
+        synchronized void removeUser(int user) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (users[i] == user) {
+                    size--;
+                    users[i] = users[size];
+                    offices[i] = offices[size];
+                    checkInMinutes[i] = checkInMinutes[size];
+                    durations[i] = durations[size];
+                    statuses[i] = statuses[size];
+                }
+            }
+        }
+
+        synchronized void trim() {
+            resize(Math.max(size, 1));
+        }
+
+        synchronized long capacityBytes() {
+            return users.length * 11L;
+        }
+
+        synchronized void aggregate(Aggregation aggregation, int dateIndex, int weekday) {
+            int groups = aggregation.records.length;
+            for (int i = 0; i < size; i++) {
+                if (!aggregation.statusMask[statuses[i]]) {
+                    continue;
+                }
+                int officeSlot = offices[i] + 1;
+                if (aggregation.officeMask != null
+                        && (officeSlot >= aggregation.officeMask.length || !aggregation.officeMask[officeSlot])) {
+                    continue;
+                }
+                if (aggregation.users != null && Arrays.binarySearch(aggregation.users, users[i]) < 0) {
+                    continue;
+                }
+
+                int group = switch (aggregation.groupBy) {
+                    case NONE -> 0;
+                    case OFFICE -> officeSlot;
+                    case USER -> users[i];
+                    case WEEKDAY -> weekday;
+                    case DATE -> dateIndex;
+                };
+                // Offices or users first seen after the query started
+                if (group >= groups) {
+                    continue;
+                }
+
+                aggregation.records[group]++;
+                aggregation.checkInMinutes[group] += checkInMinutes[i];
+                if (durations[i] != NOT_CHECKED_OUT) {
+                    aggregation.checkedOut[group]++;
+                    aggregation.minutes[group] += durations[i];
+                }
+            }
+        }
+
+        private void resize(int capacity) {
+            users = Arrays.copyOf(users, capacity);
+            offices = Arrays.copyOf(offices, capacity);
+            checkInMinutes = Arrays.copyOf(checkInMinutes, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.employee.service.attendance;
+
+import com.employee.repository.AttendanceRecordJdbcRepository.CheckInRow;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayKey;
+import com.employee.repository.AttendanceRollupJdbcRepository;
+import com.employee.repository.AttendanceRollupJdbcRepository.HistogramEvent;
+import com.employee.service.StatisticsResultCache;
+import com.employee.service.period.PeriodCloseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Keeps attendance_daily_rollups and the office minute histograms in step with
+// attendance_records and time_entries. Writers call recordCheckIns for new check-ins, refresh for
+// other user days they touched and addToHistograms for the check-ins and check-outs they wrote,
+// all inside their own transaction, so the rollup, the histograms of the offices involved and
+// the snapshot of a closed month it falls in commit or roll back together with the change.
+// Rebuild recomputes a whole range and backs the admin backfill endpoint.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceRollupService {
+    private final AttendanceRollupJdbcRepository attendanceRollupJdbcRepository;
+    private final PeriodCloseService periodCloseService;
+    private final Optional<AttendanceColumnStore> columnStore;
+    private final StatisticsResultCache statisticsResultCache;
+
+    @Transactional
+    public void refresh(Long userId, LocalDate workDate) {
+        refresh(List.of(new DayKey(userId, workDate)));
+    }
+
+    @Transactional
+    public void refresh(Collection<DayKey> keys) {
+        if (!keys.isEmpty()) {
+            attendanceRollupJdbcRepository.refresh(keys);
+            periodCloseService.rebuildAffected(keys);
+            columnStore.ifPresent(store -> store.onDaysChanged(keys));
+            statisticsResultCache.invalidateDays(keys);
+        }
+    }
+
+    // Check-ins only add to their days' rollups; the full recompute waits for the check-out. Callers
+    // that also refresh any of these days in the same transaction do so afterwards.
+    @Transactional
+    public void recordCheckIns(Collection<CheckInRow> rows) {
+        if (!rows.isEmpty()) {
+            List<DayKey> keys = rows.stream()
+                    .map(row -> new DayKey(row.getUserId(), row.getCheckInTime().toLocalDate()))
+                    .toList();
+            attendanceRollupJdbcRepository.addCheckIns(rows);
+            periodCloseService.rebuildAffected(keys);
+            columnStore.ifPresent(store -> store.onDaysChanged(keys));
+            statisticsResultCache.invalidateDays(keys);
+        }
+    }
+
+    // Histogram rows are locked until commit, so writers call this last in their transaction
+    @Transactional
+    public void addToHistograms(Collection<HistogramEvent> events) {
+        if (!events.isEmpty()) {
+            attendanceRollupJdbcRepository.addToHistograms(events);
+        }
+    }
+
+    // Returns the number of rollup rows written
+    @Transactional
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new RuntimeException("Start date must not be after end date");
+        }
+        int written = attendanceRollupJdbcRepository.rebuild(startDate, endDate);
+        periodCloseService.rebuildMonths(startDate, endDate);
+        log.info("Rebuilt {} attendance rollup rows ({} to {})",
+                written, startDate != null ? startDate : "start", endDate != null ? endDate : "end");
+        return written;
+    }
+
+    // First start with the rollup table, or after a schema change: build it from the existing history
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (attendanceRollupJdbcRepository.needsBackfill()) {
+            rebuild(null, null);
+        }
+    }
+}
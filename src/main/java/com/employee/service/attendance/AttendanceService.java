@@ -1,21 +1,37 @@
 package com.employee.service.attendance;
 
+import com.employee.dto.CursorPageDTO;
 import com.employee.dto.attendance.AttendanceRecordDTO;
 import com.employee.dto.attendance.AttendanceStatusDTO;
+import com.employee.dto.attendance.DroppedCheckInDTO;
+import com.employee.dto.attendance.GeofenceRejectionDTO;
 import com.employee.dto.checkin.CheckInRequest;
 import com.employee.dto.checkin.CheckOutRequest;
+import com.employee.dto.checkin.OfficeOccupancyDTO;
 import com.employee.exception.InvalidLocationException;
 import com.employee.model.attendance.AttendanceRecord;
 import com.employee.model.attendance.AttendanceStatus;
+import com.employee.model.attendance.AttendanceTransition;
 import com.employee.model.checkin.OfficeLocation;
 import com.employee.model.user.User;
+import com.employee.repository.AttendanceRecordJdbcRepository;
+import com.employee.repository.AttendanceRecordJdbcRepository.CheckInOutcome;
+import com.employee.repository.AttendanceRecordJdbcRepository.CheckInRow;
 import com.employee.repository.AttendanceRecordRepository;
+import com.employee.repository.AttendanceRollupJdbcRepository.HistogramEvent;
+import com.employee.repository.GeofenceRejectionRepository;
 import com.employee.repository.OfficeLocationRepository;
 import com.employee.repository.UserRepository;
+import com.employee.service.JsonArrayStreamer;
+import com.employee.service.pagination.KeysetCursor;
+import com.employee.service.pagination.PageLimits;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -28,126 +44,214 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AttendanceService {
     private final AttendanceRecordRepository attendanceRecordRepository;
+    private final AttendanceRecordJdbcRepository attendanceRecordJdbcRepository;
     private final OfficeLocationRepository officeLocationRepository;
     private final UserRepository userRepository;
+    private final AttendanceStateStore stateStore;
+    private final OfficeLocationIndex officeLocationIndex;
+    private final Optional<CheckInWriteBehindService> writeBehind;
+    private final GeofenceRejectionBuffer geofenceRejectionBuffer;
+    private final GeofenceRejectionRepository geofenceRejectionRepository;
+    private final OfficeOccupancyTracker occupancyTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AttendanceRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final PageLimits pageLimits;
+    private final JsonArrayStreamer jsonArrayStreamer;
+
+    static final long MINIMUM_WORK_MINUTES = 60;
 
     public AttendanceRecordDTO checkIn(String userEmail, CheckInRequest request) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        OfficeLocation office = officeLocationRepository.findById(request.getOfficeId())
-                .orElseThrow(() -> new RuntimeException("Office location not found"));
-
-        // Validate if already checked in today
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1).minusSeconds(1);
-
-        Optional<AttendanceRecord> existingRecord = attendanceRecordRepository
-                .findByUserAndCheckInTimeBetween(user, startOfDay, endOfDay);
-
-        if (existingRecord.isPresent()) {
-            AttendanceRecord record = existingRecord.get();
-            if (record.getStatus() == AttendanceStatus.CHECKED_IN) {
-                throw new RuntimeException("You are already checked in. Please check out first.");
-            } else if (record.getStatus() == AttendanceStatus.CHECKED_OUT) {
-                throw new RuntimeException("You have already completed your attendance for today.");
-            }
+        KnownUser known = resolveUser(userEmail);
+        Long userId = known.getId();
+
+        // Validate if already checked in today. The store may be behind a write made on another
+        // node, so a rejection is only decided after re-reading the database; an acceptance is
+        // settled by the insert, synchronously or, in write-behind mode, when the journal is
+        // flushed. Write-behind acknowledges from the store alone, without a database read.
+        TodayAttendanceState state = writeBehind.isPresent()
+                ? stateStore.peek(userId)
+                : stateStore.get(userId, this::loadTodayState);
+        if (state.getStatus() != null) {
+            state = stateStore.reload(userId, this::loadTodayState);
+        }
+        if (state.getStatus() == AttendanceStatus.CHECKED_IN) {
+            throw new RuntimeException("You are already checked in. Please check out first.");
+        } else if (state.getStatus() == AttendanceStatus.CHECKED_OUT) {
+            throw new RuntimeException("You have already completed your attendance for today.");
         }
 
-        // Check for any unchecked-out records from previous days
-        Optional<AttendanceRecord> uncheckedRecord = attendanceRecordRepository
-                .findByUserAndStatusAndCheckInTimeBetween(
-                        user,
-                        AttendanceStatus.CHECKED_IN,
-                        LocalDateTime.now().minusDays(7), // Look back 7 days
-                        startOfDay
-                );
-
-        if (uncheckedRecord.isPresent()) {
-            log.warn("User {} has unchecked-out record from {}",
-                    userEmail,
-                    uncheckedRecord.get().getCheckInTime());
-            // Optionally auto-checkout the previous record
-            autoCheckoutPreviousRecord(uncheckedRecord.get());
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            throw new RuntimeException("Location is required for check-in");
         }
 
-        // Validate location
-        if (!isWithinOfficeRadius(
+        // Resolve the office whose geofence contains the location
+        Optional<OfficeLocationIndex.OfficeMatch> match = officeLocationIndex.resolve(
                 request.getLatitude(),
                 request.getLongitude(),
-                office.getLatitude(),
-                office.getLongitude(),
-                office.getAllowedRadius())) {
-
-            // Create record with invalid location status
-            AttendanceRecord record = AttendanceRecord.builder()
-                    .user(user)
-                    .office(office)
-                    .checkInTime(LocalDateTime.now())
-                    .checkInLatitude(request.getLatitude())
-                    .checkInLongitude(request.getLongitude())
-                    .status(AttendanceStatus.INVALID_LOCATION)
-                    .build();
+                request.getOfficeId());
+
+        if (match.isEmpty()) {
+            OfficeLocationIndex.OfficeMatch nearest = officeLocationIndex
+                    .nearest(request.getLatitude(), request.getLongitude())
+                    .orElseThrow(() -> new RuntimeException("No active office locations configured"));
+
+            // Count the rejected attempt instead of storing an attendance record for it
+            geofenceRejectionBuffer.record(
+                    userId,
+                    nearest.getOffice().getId(),
+                    LocalDateTime.now(),
+                    nearest.getDistanceMeters());
+
+            throw new InvalidLocationException(
+                    String.format("Location is outside office premises (nearest office is %.0f m away)",
+                            nearest.getDistanceMeters()),
+                    nearest.getDistanceMeters());
+        }
+
+        // The record is written by id; its user only feeds the event and the response
+        User user = known.toUser();
 
-            record = attendanceRecordRepository.save(record);
-            throw new InvalidLocationException("Location is outside office premises", record.getId());
+        OfficeLocation office = match.get().getOffice();
+        if (request.getOfficeId() != null && !request.getOfficeId().equals(office.getId())) {
+            log.info("User {} requested office {} but is within office {}, checking in there",
+                    userEmail, request.getOfficeId(), office.getId());
         }
 
         // Create attendance record
+        LocalDateTime checkInTime = LocalDateTime.now();
         AttendanceRecord record = AttendanceRecord.builder()
                 .user(user)
                 .office(office)
-                .checkInTime(LocalDateTime.now())
+                .workDate(checkInTime.toLocalDate())
+                .checkInTime(checkInTime)
                 .checkInLatitude(request.getLatitude())
                 .checkInLongitude(request.getLongitude())
                 .status(AttendanceStatus.CHECKED_IN)
                 .build();
 
-        record = attendanceRecordRepository.save(record);
+        // Claim the day before writing: of several taps that all passed the check above, only one
+        // gets through here, which matters most in write-behind mode where nothing else stops them
+        TodayAttendanceState pending = TodayAttendanceState.of(record);
+        if (!stateStore.reserve(userId, pending)) {
+            throw alreadyRecorded(stateStore.get(userId, this::loadTodayState));
+        }
+
+        // Reserve a place before writing so capacity holds under concurrent check-ins; duplicate
+        // taps were turned away above and never take one
+        if (!occupancyTracker.tryEnter(office)) {
+            stateStore.release(userId, pending);
+            throw new RuntimeException("Office " + office.getName() + " is at full capacity");
+        }
+
+        // In write-behind mode the record is journaled and persisted by the background writer
+        if (writeBehind.isPresent() && writeBehind.get().enqueue(
+                userId, office.getId(), checkInTime, request.getLatitude(), request.getLongitude())) {
+            publish(AttendanceTransition.CHECKED_IN, record);
+            return mapToDTO(record);
+        }
+
+        // Conditional insert, the unique (user, work date) constraint settles concurrent taps
+        CheckInOutcome outcome;
+        try {
+            CheckInRow row = CheckInRow.builder()
+                    .userId(userId)
+                    .officeId(office.getId())
+                    .checkInTime(checkInTime)
+                    .latitude(request.getLatitude())
+                    .longitude(request.getLongitude())
+                    .build();
+            outcome = transactionTemplate.execute(status -> {
+                CheckInOutcome inserted = attendanceRecordJdbcRepository.insertCheckIn(row);
+                if (inserted.isInserted()) {
+                    rollupService.recordCheckIns(List.of(row));
+                    rollupService.addToHistograms(List.of(HistogramEvent.checkIn(office.getId(), checkInTime)));
+                }
+                return inserted;
+            });
+        } catch (RuntimeException e) {
+            occupancyTracker.leave(office.getId());
+            stateStore.release(userId, pending);
+            throw e;
+        }
+
+        if (!outcome.isInserted()) {
+            occupancyTracker.leave(office.getId());
+            TodayAttendanceState existing = TodayAttendanceState.of(outcome.getRecord());
+            stateStore.put(userId, existing);
+            throw alreadyRecorded(existing);
+        }
+
+        record.setId(outcome.getRecord().getId());
+        stateStore.put(userId, TodayAttendanceState.of(record));
+        publish(AttendanceTransition.CHECKED_IN, record);
         return mapToDTO(record);
     }
 
-    public AttendanceRecordDTO checkOut(String userEmail, CheckOutRequest request) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private static RuntimeException alreadyRecorded(TodayAttendanceState state) {
+        if (state.getStatus() == AttendanceStatus.CHECKED_OUT) {
+            return new RuntimeException("You have already completed your attendance for today.");
+        }
+        return new RuntimeException("You are already checked in. Please check out first.");
+    }
 
-        // Find today's check-in record
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1).minusSeconds(1);
+    public AttendanceRecordDTO checkOut(String userEmail, CheckOutRequest request) {
+        Long userId = resolveUserId(userEmail);
 
-        AttendanceRecord record = attendanceRecordRepository
-                .findByUserAndCheckInTimeBetween(user, startOfDay, endOfDay)
-                .orElseThrow(() -> new RuntimeException("No check-in record found for today"));
+        // Find today's check-in record; re-read before rejecting, it may have been written on another node
+        TodayAttendanceState state = stateStore.get(userId, this::loadTodayState);
+        if (state.getStatus() != AttendanceStatus.CHECKED_IN) {
+            state = stateStore.reload(userId, this::loadTodayState);
+        }
+        if (state.getStatus() == null) {
+            throw new RuntimeException("No check-in record found for today");
+        }
 
         // Validate not already checked out
-        if (record.getStatus() == AttendanceStatus.CHECKED_OUT) {
+        if (state.getStatus() == AttendanceStatus.CHECKED_OUT) {
             throw new RuntimeException("Already checked out for today");
         }
 
-        // Validate location
-        if (!isWithinOfficeRadius(
-                request.getLatitude(),
-                request.getLongitude(),
-                record.getOffice().getLatitude(),
-                record.getOffice().getLongitude(),
-                record.getOffice().getAllowedRadius())) {
-            log.warn("User attempting to check out from invalid location: {}, {}",
-                    request.getLatitude(), request.getLongitude());
-            // Optionally: You might want to allow check-out from any location
-            // or create a separate status for out-of-office check-out
-        }
-
         // Calculate work duration
         long minutesWorked = ChronoUnit.MINUTES.between(
-                record.getCheckInTime(),
+                state.getCheckInTime(),
                 LocalDateTime.now()
         );
 
         // Optionally: Validate minimum work hours
-        if (minutesWorked < 60) { // Example: minimum 1 hour
+        if (minutesWorked < MINIMUM_WORK_MINUTES) { // Example: minimum 1 hour
             throw new RuntimeException("Minimum work duration not met");
         }
 
+        // A journaled check-in has no record id until it has been flushed
+        if (state.getRecordId() == null && writeBehind.isPresent()) {
+            writeBehind.get().flush();
+            state = loadTodayState(userId);
+        }
+        if (state.getRecordId() == null) {
+            throw new RuntimeException("No check-in record found for today");
+        }
+
+        AttendanceRecord record = attendanceRecordRepository.findById(state.getRecordId())
+                .orElseThrow(() -> new RuntimeException("No check-in record found for today"));
+        if (record.getStatus() != AttendanceStatus.CHECKED_IN) {
+            // Checked out elsewhere since the store was filled
+            stateStore.put(userId, TodayAttendanceState.of(record));
+            throw new RuntimeException("Already checked out for today");
+        }
+
+        // Validate location
+        if (request.getLatitude() == null || request.getLongitude() == null
+                || !officeLocationIndex.isWithinRadius(
+                        record.getOffice(),
+                        request.getLatitude(),
+                        request.getLongitude())) {
+            log.warn("User attempting to check out from invalid location: {}, {}",
+                    request.getLatitude(), request.getLongitude());
+            // Optionally: You might want to allow check-out from any location
+            // or create a separate status for out-of-office check-out
+        }
+
         // Update record
         record.setCheckOutTime(LocalDateTime.now());
         record.setCheckOutLatitude(request.getLatitude());
@@ -155,7 +259,15 @@ public class AttendanceService {
         record.setStatus(AttendanceStatus.CHECKED_OUT);
         record.setNotes(request.getNotes());
 
-        record = attendanceRecordRepository.save(record);
+        try {
+            record = saveAndRefreshRollup(record);
+        } catch (RuntimeException e) {
+            stateStore.evict(userId);
+            throw e;
+        }
+        stateStore.put(userId, TodayAttendanceState.of(record));
+        occupancyTracker.leave(record.getOffice().getId());
+        publish(AttendanceTransition.CHECKED_OUT, record);
 
         // Log successful check-out
         log.info("User {} checked out successfully. Hours worked: {}",
@@ -166,68 +278,43 @@ public class AttendanceService {
 
     // Add method to get current status
     public AttendanceStatusDTO getCurrentStatus(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1).minusSeconds(1);
-
-        return attendanceRecordRepository
-                .findByUserAndCheckInTimeBetween(user, startOfDay, endOfDay)
-                .map(record -> AttendanceStatusDTO.builder()
-                        .date(LocalDate.now())
-                        .status(record.getStatus())
-                        .checkInTime(record.getCheckInTime())
-                        .checkOutTime(record.getCheckOutTime())
-                        .hoursWorked(record.getCheckOutTime() != null ?
-                                ChronoUnit.MINUTES.between(
-                                        record.getCheckInTime(),
-                                        record.getCheckOutTime()) / 60.0 : null)
-                        .build())
-                .orElse(AttendanceStatusDTO.builder()
-                        .date(LocalDate.now())
-                        .status(null)
-                        .build());
+        Long userId = resolveUserId(userEmail);
+        TodayAttendanceState state = stateStore.get(userId, this::loadTodayState);
+
+        return AttendanceStatusDTO.builder()
+                .date(state.getDate())
+                .status(state.getStatus())
+                .checkInTime(state.getCheckInTime())
+                .checkOutTime(state.getCheckOutTime())
+                .hoursWorked(state.getCheckOutTime() != null ?
+                        ChronoUnit.MINUTES.between(
+                                state.getCheckInTime(),
+                                state.getCheckOutTime()) / 60.0 : null)
+                .build();
     }
 
-    private void autoCheckoutPreviousRecord(AttendanceRecord record) {
-        record.setCheckOutTime(record.getCheckInTime().plusHours(8)); // Assume 8-hour workday
-        record.setStatus(AttendanceStatus.CHECKED_OUT);
-        record.setCheckOutLatitude(record.getCheckInLatitude());
-        record.setCheckOutLongitude(record.getCheckInLongitude());
-        attendanceRecordRepository.save(record);
-
-        log.info("Auto checked-out previous record for user {} from {}",
-                record.getUser().getEmail(),
-                record.getCheckInTime());
+    private Long resolveUserId(String userEmail) {
+        return resolveUser(userEmail).getId();
     }
 
+    private KnownUser resolveUser(String userEmail) {
+        return stateStore.resolveUser(userEmail, email -> userRepository.findNameByEmail(email)
+                .map(user -> new KnownUser(user.getId(), email, user.getFirstName(), user.getLastName()))
+                .orElseThrow(() -> new RuntimeException("User not found")));
+    }
 
-    private boolean isWithinOfficeRadius(
-            double userLat,
-            double userLng,
-            double officeLat,
-            double officeLng,
-            double radiusInMeters) {
-
-        // Calculate distance using Haversine formula
-        double earthRadius = 6371000; // meters
-
-        double dLat = Math.toRadians(officeLat - userLat);
-        double dLng = Math.toRadians(officeLng - userLng);
-
-        double a = Math.sin(dLat/2) * Math.sin(dLat/2) +
-                Math.cos(Math.toRadians(userLat)) * Math.cos(Math.toRadians(officeLat)) *
-                        Math.sin(dLng/2) * Math.sin(dLng/2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1-a));
-        double distance = earthRadius * c;
+    private TodayAttendanceState loadTodayState(Long userId) {
+        LocalDate today = LocalDate.now();
 
-        return distance <= radiusInMeters;
+        return attendanceRecordRepository.findByUserIdAndWorkDate(userId, today)
+                .map(TodayAttendanceState::of)
+                .orElse(TodayAttendanceState.none(today));
     }
 
-
-    public List<AttendanceRecordDTO> getHistory(String userEmail, LocalDate startDate, LocalDate endDate) {
+    // Lists below are keyset-paginated on (check-in time, id), newest first; cursor is the
+    // nextCursor of the previous page or null for the first one
+    public CursorPageDTO<AttendanceRecordDTO> getHistory(
+            String userEmail, LocalDate startDate, LocalDate endDate, String cursor, Integer limit) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -238,51 +325,100 @@ public class AttendanceService {
         log.info("Fetching attendance history for user {} between {} and {}",
                 user.getEmail(), startDateTime, endDateTime);
 
-        List<AttendanceRecord> records = attendanceRecordRepository
-                .findByUserAndCheckInTimeBetweenOrderByCheckInTimeDesc(
-                        user,
-                        startDateTime,
-                        endDateTime
-                );
+        KeysetCursor after = afterCursor(cursor, endDateTime);
+        int pageSize = pageLimits.pageSize(limit);
+        List<AttendanceRecord> records = attendanceRecordRepository.findUserPage(
+                user.getId(), startDateTime, after.dateTimeKey(), after.getId(), pageLimits.probe(pageSize));
 
-        return records.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return KeysetCursor.toPage(records, pageSize, this::cursorOf, this::mapToDTO);
     }
 
     // For admin use
-    public List<AttendanceRecordDTO> getAllAttendanceRecords(LocalDate startDate, LocalDate endDate) {
+    public CursorPageDTO<AttendanceRecordDTO> getAllAttendanceRecords(
+            LocalDate startDate, LocalDate endDate, String cursor, Integer limit) {
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
 
-        return attendanceRecordRepository.findByCheckInTimeBetweenOrderByCheckInTimeDesc(
-                        startDateTime,
-                        endDateTime
-                )
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        KeysetCursor after = afterCursor(cursor, endDateTime);
+        int pageSize = pageLimits.pageSize(limit);
+        List<AttendanceRecord> records = attendanceRecordRepository.findPage(
+                startDateTime, after.dateTimeKey(), after.getId(), pageLimits.probe(pageSize));
+
+        return KeysetCursor.toPage(records, pageSize, this::cursorOf, this::mapToDTO);
     }
 
     // For admin use - get attendance by office
-    public List<AttendanceRecordDTO> getAttendanceByOffice(
+    public CursorPageDTO<AttendanceRecordDTO> getAttendanceByOffice(
             Long officeId,
             LocalDate startDate,
-            LocalDate endDate) {
+            LocalDate endDate,
+            String cursor,
+            Integer limit) {
 
-        OfficeLocation office = officeLocationRepository.findById(officeId)
-                .orElseThrow(() -> new RuntimeException("Office not found"));
+        if (!officeLocationRepository.existsById(officeId)) {
+            throw new RuntimeException("Office not found");
+        }
 
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
 
-        return attendanceRecordRepository.findByOfficeAndCheckInTimeBetweenOrderByCheckInTimeDesc(
-                        office,
-                        startDateTime,
-                        endDateTime
-                )
+        KeysetCursor after = afterCursor(cursor, endDateTime);
+        int pageSize = pageLimits.pageSize(limit);
+        List<AttendanceRecord> records = attendanceRecordRepository.findOfficePage(
+                officeId, startDateTime, after.dateTimeKey(), after.getId(), pageLimits.probe(pageSize));
+
+        return KeysetCursor.toPage(records, pageSize, this::cursorOf, this::mapToDTO);
+    }
+
+    // For admin use - the whole range as one JSON array written to out while it is read
+    public void streamAllAttendanceRecords(LocalDate startDate, LocalDate endDate, OutputStream out) {
+        jsonArrayStreamer.write(out,
+                () -> attendanceRecordRepository.streamByCheckInTimeBetween(
+                        startDate.atStartOfDay(), endDate.atTime(23, 59, 59)),
+                this::mapToDTO);
+    }
+
+    // The first page starts just after the end of the range
+    private KeysetCursor afterCursor(String cursor, LocalDateTime endDateTime) {
+        return cursor != null ? KeysetCursor.decode(cursor) : KeysetCursor.of(endDateTime, Long.MAX_VALUE);
+    }
+
+    private KeysetCursor cursorOf(AttendanceRecord record) {
+        return KeysetCursor.of(record.getCheckInTime(), record.getId());
+    }
+
+    // For admin use - check-in attempts rejected by the geofence
+    public List<GeofenceRejectionDTO> getGeofenceRejections(LocalDate startDate, LocalDate endDate) {
+        return geofenceRejectionRepository
+                .findByWorkDateBetweenOrderByWorkDateDescAttemptCountDesc(startDate, endDate)
                 .stream()
-                .map(this::mapToDTO)
+                .map(rejection -> GeofenceRejectionDTO.builder()
+                        .userName(rejection.getUser().getFirstName() + " " + rejection.getUser().getLastName())
+                        .userEmail(rejection.getUser().getEmail())
+                        .date(rejection.getWorkDate())
+                        .nearestOfficeName(rejection.getOffice() != null ? rejection.getOffice().getName() : null)
+                        .nearestDistanceMeters(rejection.getNearestDistanceMeters())
+                        .attemptCount(rejection.getAttemptCount())
+                        .firstAttemptAt(rejection.getFirstAttemptAt())
+                        .lastAttemptAt(rejection.getLastAttemptAt())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // Live occupancy of every active office
+    // Acknowledged write-behind check-ins that lost to an existing record; empty without write-behind
+    public List<DroppedCheckInDTO> getDroppedCheckIns() {
+        return writeBehind.map(CheckInWriteBehindService::getDroppedCheckIns).orElse(List.of());
+    }
+
+    public List<OfficeOccupancyDTO> getOfficeOccupancy() {
+        return officeLocationIndex.getOffices().stream()
+                .map(office -> OfficeOccupancyDTO.builder()
+                        .officeId(office.getId())
+                        .officeName(office.getName())
+                        .occupancy(occupancyTracker.getOccupancy(office.getId()))
+                        .capacity(office.getCapacity())
+                        .build())
                 .collect(Collectors.toList());
     }
 
@@ -349,11 +485,46 @@ public class AttendanceService {
 
         log.info("Force check-out completed. Hours worked: {}", minutesWorked / 60.0);
 
-        record = attendanceRecordRepository.save(record);
+        record = saveAndRefreshRollup(record);
+        stateStore.put(userId, TodayAttendanceState.of(record));
+        // Occupancy only counts today's check-ins
+        if (record.getOffice() != null && LocalDate.now().equals(record.getCheckInTime().toLocalDate())) {
+            occupancyTracker.leave(record.getOffice().getId());
+        }
+        publish(AttendanceTransition.FORCE_CHECKED_OUT, record);
 
         // Optionally: Send notification to user
         // notificationService.notifyForcedCheckOut(user.getEmail(), record);
 
         return mapToDTO(record);
     }
-}
\ No newline at end of file
+
+    private AttendanceRecord saveAndRefreshRollup(AttendanceRecord record) {
+        return transactionTemplate.execute(status -> {
+            // Of concurrent check-outs of one record only the first closes it and is counted
+            if (!attendanceRecordJdbcRepository.lockOpenRecord(record.getId())) {
+                throw new RuntimeException("Already checked out for today");
+            }
+            // Flushed so the rollup query sees the update
+            AttendanceRecord saved = attendanceRecordRepository.saveAndFlush(record);
+            rollupService.refresh(saved.getUser().getId(), saved.getCheckInTime().toLocalDate());
+            if (saved.getOffice() != null) {
+                rollupService.addToHistograms(List.of(HistogramEvent.checkOut(
+                        saved.getOffice().getId(), saved.getCheckInTime(), saved.getCheckOutTime())));
+            }
+            return saved;
+        });
+    }
+
+    private void publish(AttendanceTransition type, AttendanceRecord record) {
+        eventPublisher.publishEvent(AttendanceChangedEvent.builder()
+                .type(type)
+                .userId(record.getUser().getId())
+                .userName(record.getUser().getFirstName() + " " + record.getUser().getLastName())
+                .officeId(record.getOffice() != null ? record.getOffice().getId() : null)
+                .workDate(record.getWorkDate())
+                .checkInTime(record.getCheckInTime())
+                .checkOutTime(record.getCheckOutTime())
+                .build());
+    }
+}
@@ -0,0 +1,201 @@
+package com.employee.service.attendance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Per-node store of today's attendance state keyed by user id.
+// Every check-in/check-out writes through to this store so that status reads and
+// duplicate check-in validation can be answered without a database round trip.
+// Other nodes change the same records without telling this store, so entries are reloaded
+// after a short TTL, and state-changing paths reload before acting on a state they would
+// reject. Check-ins still waiting in the write-behind journal are not in the database yet
+// and stay until the flush evicts them. The store is cleared when the day rolls over.
+// Users are also cached by email with their display name, so a tap reads neither table once
+// the user is known; names changed on another node show up after the user TTL.
+@Component
+@Slf4j
+public class AttendanceStateStore {
+    private final long ttlNanos;
+    private final long userTtlNanos;
+    private final Map<Long, Entry> states = new ConcurrentHashMap<>();
+    private final Map<String, CachedUser> usersByEmail;
+    private volatile LocalDate currentDay = LocalDate.now();
+
+    public AttendanceStateStore(
+            @Value("${attendance.state-store.ttl-seconds:60}") long ttlSeconds,
+            @Value("${attendance.state-store.max-emails:50000}") int maxEmails,
+            @Value("${attendance.state-store.user-ttl-seconds:600}") long userTtlSeconds) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.userTtlNanos = TimeUnit.SECONDS.toNanos(userTtlSeconds);
+        // Access order, so the eldest entry is the least recently used
+        this.usersByEmail = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > maxEmails;
+            }
+        });
+    }
+
+    // Loaded outside the lock; concurrent misses for one email may both load it
+    public KnownUser resolveUser(String email, Function<String, KnownUser> loader) {
+        CachedUser cached = usersByEmail.get(email);
+        long now = System.nanoTime();
+        if (cached != null && cached.expiresAt - now > 0) {
+            return cached.user;
+        }
+        KnownUser user = loader.apply(email);
+        usersByEmail.put(email, new CachedUser(user, now + userTtlNanos));
+        return user;
+    }
+
+    // The user's profile changed on this node
+    public void forgetUser(String email) {
+        usersByEmail.remove(email);
+    }
+
+    // Returns today's state for the user, loading it through the given loader on a miss or
+    // once the stored one has expired
+    public TodayAttendanceState get(Long userId, Function<Long, TodayAttendanceState> loader) {
+        LocalDate today = rollOverIfNeeded();
+
+        Entry entry = states.get(userId);
+        if (entry != null && entry.isCurrent(today, System.nanoTime())) {
+            return entry.state;
+        }
+        return store(userId, loader.apply(userId), today, false);
+    }
+
+    // Today's state as far as this node knows it, without touching the database; a user with
+    // no stored state reads as not recorded yet
+    public TodayAttendanceState peek(Long userId) {
+        LocalDate today = rollOverIfNeeded();
+        Entry entry = states.get(userId);
+        return entry != null && today.equals(entry.state.getDate())
+                ? entry.state
+                : TodayAttendanceState.none(today);
+    }
+
+    // Re-reads today's state from the database and stores it, for paths about to act on a state
+    // another node may have changed. A check-in still waiting in the journal is kept.
+    public TodayAttendanceState reload(Long userId, Function<Long, TodayAttendanceState> loader) {
+        LocalDate today = rollOverIfNeeded();
+        return store(userId, loader.apply(userId), today, true);
+    }
+
+    // Writes a transition through to the store; states for other days are ignored
+    public void put(Long userId, TodayAttendanceState state) {
+        LocalDate today = rollOverIfNeeded();
+        if (today.equals(state.getDate())) {
+            states.put(userId, new Entry(state, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    // Claims today for a check-in by storing the given pending state, unless the stored state
+    // already has a status. Concurrent taps of the same user race on one atomic compute, so at
+    // most one of them gets true until the claim is released or replaced.
+    public boolean reserve(Long userId, TodayAttendanceState pending) {
+        LocalDate today = rollOverIfNeeded();
+        if (!today.equals(pending.getDate())) {
+            return false;
+        }
+
+        boolean[] reserved = new boolean[1];
+        states.compute(userId, (id, current) -> {
+            if (current != null && today.equals(current.state.getDate()) && current.state.getStatus() != null) {
+                return current;
+            }
+            reserved[0] = true;
+            return new Entry(pending, System.nanoTime() + ttlNanos);
+        });
+        return reserved[0];
+    }
+
+    // Drops a reservation whose check-in was not written; a state stored since then is kept
+    public void release(Long userId, TodayAttendanceState pending) {
+        states.computeIfPresent(userId, (id, current) -> current.state == pending ? null : current);
+    }
+
+    public void evict(Long userId) {
+        states.remove(userId);
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rollOver() {
+        rollOverIfNeeded();
+    }
+
+    // A loaded state only replaces a current one when forced, and never a pending check-in
+    private TodayAttendanceState store(Long userId, TodayAttendanceState loaded, LocalDate today, boolean force) {
+        if (!today.equals(loaded.getDate())) {
+            return loaded;
+        }
+
+        long now = System.nanoTime();
+        Entry stored = states.compute(userId, (id, current) -> {
+            if (current != null && today.equals(current.state.getDate())
+                    && (current.isPending() || (!force && current.isCurrent(today, now)))) {
+                return current;
+            }
+            return new Entry(loaded, now + ttlNanos);
+        });
+        return stored.state;
+    }
+
+    private LocalDate rollOverIfNeeded() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(currentDay)) {
+            synchronized (this) {
+                if (!today.equals(currentDay)) {
+                    log.info("Rolling attendance state over from {} to {} ({} entries cleared)",
+                            currentDay, today, states.size());
+                    states.clear();
+                    currentDay = today;
+                }
+            }
+        }
+        return today;
+    }
+
+    private static final class CachedUser {
+        final KnownUser user;
+        final long expiresAt;
+
+        CachedUser(KnownUser user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Entry {
+        final TodayAttendanceState state;
+        final long expiresAt;
+
+        Entry(TodayAttendanceState state, long expiresAt) {
+            this.state = state;
+            this.expiresAt = expiresAt;
+        }
+
+        // A check-in accepted without a record yet; only this node knows about it
+        boolean isPending() {
+            return state.getStatus() != null && state.getRecordId() == null;
+        }
+
+        boolean isCurrent(LocalDate today, long now) {
+            return today.equals(state.getDate()) && (isPending() || expiresAt - now > 0);
+        }
+    }
+}
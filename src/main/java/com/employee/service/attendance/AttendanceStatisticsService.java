@@ -1,250 +1,205 @@
 package com.employee.service.attendance;
 
-import com.employee.dto.DailyStatsDTO;
+import com.employee.dto.CursorPageDTO;
 import com.employee.dto.DepartmentAttendanceStatsDTO;
+import com.employee.dto.attendance.AnalyticsGroupBy;
+import com.employee.dto.attendance.ArrivalDistributionDTO;
+import com.employee.dto.attendance.AttendanceAnalyticsRowDTO;
+import com.employee.dto.attendance.AttendanceStatsField;
 import com.employee.dto.user.UserAttendanceStatsDTO;
-import com.employee.model.attendance.AttendanceRecord;
 import com.employee.model.attendance.AttendanceStatus;
-import com.employee.model.timesheet.TimeEntry;
 import com.employee.model.user.User;
-import com.employee.repository.AttendanceRecordRepository;
-import com.employee.repository.TimeEntryRepository;
+import com.employee.repository.AttendanceStatsJdbcRepository;
+import com.employee.repository.AttendanceStatsJdbcRepository.DepartmentTotals;
 import com.employee.repository.UserRepository;
+import com.employee.repository.projection.UserNameView;
+import com.employee.service.StatisticsResultCache;
+import com.employee.service.StatisticsSliceExecutor;
+import com.employee.service.pagination.KeysetCursor;
+import com.employee.service.pagination.PageLimits;
+import com.employee.service.period.PeriodCloseService;
+import com.employee.service.period.PeriodPlan;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.OptionalDouble;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+// Statistics are read from the daily rollups in one query and folded by UserStatsAccumulator
+// in a single pass. The query count is the same for one user and for the whole department.
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AttendanceStatisticsService {
-    private final AttendanceRecordRepository attendanceRecordRepository;
-    private final TimeEntryRepository timeEntryRepository;
+    private final AttendanceStatsJdbcRepository attendanceStatsJdbcRepository;
     private final UserRepository userRepository;
+    private final StatisticsSliceExecutor sliceExecutor;
+    private final PeriodCloseService periodCloseService;
+    private final Optional<AttendanceColumnStore> columnStore;
+    private final StatisticsResultCache statisticsResultCache;
+    private final PageLimits pageLimits;
 
     public UserAttendanceStatsDTO getUserStats(Long userId, LocalDate startDate, LocalDate endDate) {
+        return statisticsResultCache.attendanceStats(userId, startDate, endDate,
+                () -> computeUserStats(userId, startDate, endDate));
+    }
+
+    private UserAttendanceStatsDTO computeUserStats(Long userId, LocalDate startDate, LocalDate endDate) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<AttendanceRecord> attendanceRecords = attendanceRecordRepository
-                .findByUserAndCheckInTimeBetweenOrderByCheckInTimeDesc(
-                        user,
-                        startDate.atStartOfDay(),
-                        endDate.atTime(23, 59, 59)
-                );
-
-        List<TimeEntry> timeEntries = timeEntryRepository
-                .findByUserAndDateBetweenOrderByDateDesc(
-                        user,
-                        startDate,
-                        endDate
-                );
-
-        return UserAttendanceStatsDTO.builder()
-                .userId(userId)
-                .userName(user.getFirstName() + " " + user.getLastName())
-                .startDate(startDate)
-                .endDate(endDate)
-                .totalDays(ChronoUnit.DAYS.between(startDate, endDate) + 1)
-                .presentDays(countPresentDays(attendanceRecords))
-                .totalAttendanceHours(calculateTotalAttendanceHours(attendanceRecords))
-                .totalTrackedHours(calculateTotalTrackedHours(timeEntries))
-                .averageCheckInTime(calculateAverageCheckInTime(attendanceRecords))
-                .averageCheckOutTime(calculateAverageCheckOutTime(attendanceRecords))
-                .averageWorkHours(calculateAverageWorkHours(attendanceRecords))
-                .lateCheckIns(countLateCheckIns(attendanceRecords))
-                .earlyCheckOuts(countEarlyCheckOuts(attendanceRecords))
-                .dailyStats(generateDailyStats(attendanceRecords, timeEntries))
-                .build();
-    }
-
+        // Closed months are replayed from their snapshots, the open part of the range is folded
+        // live, per month slice on the statistics pool for long ranges
+        PeriodPlan plan = periodCloseService.plan(startDate, endDate);
+        UserStatsAccumulator accumulator = new UserStatsAccumulator(startDate, endDate);
+        periodCloseService.forEachSnapshot(userId, plan.getClosedMonths(), true,
+                snapshot -> periodCloseService.decodeDays(snapshot).forEach(accumulator::add));
+
+        for (PeriodPlan.DateRange range : plan.getOpenRanges()) {
+            accumulator.merge(sliceExecutor.mapReduce(
+                    range.getFrom(),
+                    range.getTo(),
+                    (from, to) -> {
+                        UserStatsAccumulator slice = new UserStatsAccumulator(startDate, endDate);
+                        attendanceStatsJdbcRepository.forEachDay(userId, from, to, slice::add);
+                        return slice;
+                    },
+                    UserStatsAccumulator::merge));
+        }
 
+        return accumulator.toStats(userId, user.getFirstName() + " " + user.getLastName());
+    }
+
+
+
+    // Without cursor and limit every user is returned, as before. With either of them users are
+    // paged in id order and only the page's rollups are read; the department-wide figures are
+    // computed by one aggregate query and only on the first page. Null or empty fields means all.
+    public DepartmentAttendanceStatsDTO getDepartmentStats(
+            LocalDate startDate,
+            LocalDate endDate,
+            Set<AttendanceStatsField> fields,
+            String cursor,
+            Integer limit) {
+        Set<AttendanceStatsField> requested = fields == null || fields.isEmpty()
+                ? EnumSet.allOf(AttendanceStatsField.class)
+                : EnumSet.copyOf(fields);
+        boolean paged = cursor != null || limit != null;
+
+        List<UserNameView> users;
+        String nextCursor = null;
+        Map<Long, UserStatsAccumulator> accumulators = new HashMap<>();
+        if (!paged) {
+            users = userRepository.findAllByOrderByIdAsc();
+            attendanceStatsJdbcRepository.forEachDay(null, startDate, endDate, day -> accumulators
+                    .computeIfAbsent(day.getUserId(), id -> new UserStatsAccumulator(startDate, endDate, requested))
+                    .add(day));
+        } else {
+            int pageSize = pageLimits.pageSize(limit);
+            CursorPageDTO<UserNameView> page = KeysetCursor.toPage(
+                    userRepository.findByIdGreaterThanOrderByIdAsc(
+                            cursor != null ? KeysetCursor.decode(cursor).getId() : 0L, pageLimits.probe(pageSize)),
+                    pageSize,
+                    user -> KeysetCursor.of(user.getId()),
+                    user -> user);
+            users = page.getItems();
+            nextCursor = page.getNextCursor();
+            attendanceStatsJdbcRepository.forEachDayOfUsers(
+                    users.stream().map(UserNameView::getId).collect(Collectors.toList()),
+                    startDate,
+                    endDate,
+                    day -> accumulators
+                            .computeIfAbsent(day.getUserId(), id -> new UserStatsAccumulator(startDate, endDate, requested))
+                            .add(day));
+        }
 
-    public DepartmentAttendanceStatsDTO getDepartmentStats(LocalDate startDate, LocalDate endDate) {
-        List<User> users = userRepository.findAll();
         List<UserAttendanceStatsDTO> userStats = users.stream()
-                .map(user -> getUserStats(user.getId(), startDate, endDate))
+                .map(user -> accumulators
+                        .getOrDefault(user.getId(), new UserStatsAccumulator(startDate, endDate, requested))
+                        .toStats(user.getId(), user.getFirstName() + " " + user.getLastName()))
                 .collect(Collectors.toList());
 
-        return DepartmentAttendanceStatsDTO.builder()
+        DepartmentAttendanceStatsDTO.DepartmentAttendanceStatsDTOBuilder department = DepartmentAttendanceStatsDTO.builder()
                 .startDate(startDate)
                 .endDate(endDate)
-                .totalEmployees(users.size())
-                .averageAttendance(calculateAverageAttendance(userStats))
-                .averageWorkHours(calculateAverageWorkHoursStats(userStats))
                 .userStats(userStats)
-                .build();
-    }
-
-
-
-    private List<DailyStatsDTO> generateDailyStats(
-            List<AttendanceRecord> attendanceRecords,
-            List<TimeEntry> timeEntries) {
-
-        Map<LocalDate, List<TimeEntry>> timeEntriesByDate = timeEntries.stream()
-                .collect(Collectors.groupingBy(TimeEntry::getDate));
-
-        return attendanceRecords.stream()
-                .map(record -> {
-                    LocalDate date = record.getCheckInTime().toLocalDate();
-                    List<TimeEntry> dailyTimeEntries = timeEntriesByDate.
-                            getOrDefault(date, Collections.emptyList());
-
-                    return DailyStatsDTO.builder()
-                            .date(date)
-                            .checkInTime(record.getCheckInTime())
-                            .checkOutTime(record.getCheckOutTime())
-                            .attendanceHours(calculateAttendanceHours(record))
-                            .trackedHours(calculateTrackedHours(dailyTimeEntries))
-                            .status(record.getStatus())
-                            .isLateCheckIn(isLateCheckIn(record))
-                            .isEarlyCheckOut(isEarlyCheckOut(record))
-                            .build();
-                })
-                .collect(Collectors.toList());
-    }
-
-
-    // Helper methods
-    private long countPresentDays(List<AttendanceRecord> records) {
-        return records.stream()
-                .filter(r -> r.getStatus() == AttendanceStatus.CHECKED_OUT)
-                .map(r -> r.getCheckInTime().toLocalDate())
-                .distinct()
-                .count();
-    }
-
-    private double calculateTotalAttendanceHours(List<AttendanceRecord> records) {
-        return records.stream()
-                .filter(r -> r.getCheckOutTime() != null)
-                .mapToDouble(this::calculateAttendanceHours)
-                .sum();
-    }
-
-    private double calculateTotalTrackedHours(List<TimeEntry> entries) {
-        return entries.stream()
-                .mapToDouble(TimeEntry::getHours)
-                .sum();
-    }
-
-    private LocalTime calculateAverageCheckInTime(List<AttendanceRecord> records) {
-        OptionalDouble avgMinutes = records.stream()
-                .mapToDouble(r -> r.getCheckInTime().toLocalTime().toSecondOfDay() / 60.0)
-                .average();
-
-        return avgMinutes.isPresent()
-                ? LocalTime.ofSecondOfDay((long) (avgMinutes.getAsDouble() * 60))
-                : null;
-    }
-
-    private boolean isLateCheckIn(AttendanceRecord record) {
-        LocalTime checkInTime = record.getCheckInTime().toLocalTime();
-        return checkInTime.isAfter(LocalTime.of(9, 0)); // Example: 9 AM start time
-    }
-
-    private boolean isEarlyCheckOut(AttendanceRecord record) {
-        if (record.getCheckOutTime() == null) return false;
-        LocalTime checkOutTime = record.getCheckOutTime().toLocalTime();
-        return checkOutTime.isBefore(LocalTime.of(17, 0)); // Example: 5 PM end time
-    }
-
-    private int countLateCheckIns(List<AttendanceRecord> attendanceRecords) {
-        return (int) attendanceRecords.stream()
-                .filter(this::isLateCheckIn)
-                .count();
-    }
-
-    private int countEarlyCheckOuts(List<AttendanceRecord> attendanceRecords) {
-        return (int) attendanceRecords.stream()
-                .filter(this::isEarlyCheckOut)
-                .count();
-    }
-
-    private double calculateAverageWorkHoursStats(List<UserAttendanceStatsDTO> userStats) {
-        if (userStats.isEmpty()) {
-            return 0.0;
+                .nextCursor(nextCursor);
+        if (cursor == null) {
+            long totalEmployees = paged ? userRepository.count() : users.size();
+            long totalDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+            DepartmentTotals totals = attendanceStatsJdbcRepository.sumDepartment(startDate, endDate);
+            department.totalEmployees((int) totalEmployees)
+                    .averageAttendance(totalEmployees > 0 && totalDays > 0
+                            ? totals.getPresentDays() * 100.0 / totalDays / totalEmployees
+                            : 0.0)
+                    .averageWorkHours(totalEmployees > 0
+                            ? totals.getAttendanceMinutes() / 60.0 / totalEmployees
+                            : 0.0);
         }
-        return userStats.stream()
-                .mapToDouble(UserAttendanceStatsDTO::getTotalAttendanceHours)
-                .average()
-                .orElse(0.0);
+        return department.build();
     }
 
-    private LocalTime calculateAverageCheckOutTime(List<AttendanceRecord> attendanceRecords) {
-        OptionalDouble avgMinutes = attendanceRecords.stream()
-                .filter(r -> r.getCheckOutTime() != null)
-                .mapToDouble(r -> r.getCheckOutTime().toLocalTime().toSecondOfDay() / 60.0)
-                .average();
 
-        return avgMinutes.isPresent()
-                ? LocalTime.ofSecondOfDay((long) (avgMinutes.getAsDouble() * 60))
-                : null;
-    }
 
-    private double calculateAverageAttendance(List<UserAttendanceStatsDTO> userStats) {
-        if (userStats.isEmpty()) {
-            return 0.0;
+    // Percentiles and threshold counts of check-in and check-out times over the range, merged
+    // from the per-office minute histograms without reading attendance_records
+    public ArrivalDistributionDTO getArrivalDistribution(
+            Long officeId,
+            LocalDate startDate,
+            LocalDate endDate,
+            LocalTime lateAfter,
+            LocalTime earlyBefore) {
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("Start date must not be after end date");
         }
 
-        double totalAttendancePercentage = userStats.stream()
-                .mapToDouble(stat -> {
-                    long totalDays = stat.getTotalDays();
-                    return totalDays > 0
-                            ? (double) stat.getPresentDays() / totalDays * 100
-                            : 0.0;
-                })
-                .sum();
+        MinuteHistogram checkIns = new MinuteHistogram();
+        MinuteHistogram checkOuts = new MinuteHistogram();
+        attendanceStatsJdbcRepository.forEachOfficeDay(officeId, startDate, endDate, day -> {
+            checkIns.add(day.getCheckInMinutes(), day.getCheckInCounts());
+            checkOuts.add(day.getCheckOutMinutes(), day.getCheckOutCounts());
+        });
 
-        return totalAttendancePercentage / userStats.size();
-    }
-
-    private double calculateTrackedHours(List<TimeEntry> dailyTimeEntries) {
-        return dailyTimeEntries.stream()
-                .mapToDouble(TimeEntry::getHours)
-                .sum();
-    }
-
-    private double calculateAttendanceHours(AttendanceRecord record) {
-        if (record.getCheckInTime() == null || record.getCheckOutTime() == null) {
-            return 0.0;
-        }
-
-        long minutes = ChronoUnit.MINUTES.between(
-                record.getCheckInTime(),
-                record.getCheckOutTime()
-        );
-
-        // Convert minutes to hours
-        return minutes / 60.0;
-    }
-
-    // Also, let's add this method to calculate average work hours for a list of attendance records
-    private double calculateAverageWorkHours(List<AttendanceRecord> attendanceRecords) {
-        if (attendanceRecords.isEmpty()) {
-            return 0.0;
-        }
-
-        double totalHours = attendanceRecords.stream()
-                .filter(r -> r.getCheckOutTime() != null)
-                .mapToDouble(this::calculateAttendanceHours)
-                .sum();
-
-        long daysWithRecords = attendanceRecords.stream()
-                .map(r -> r.getCheckInTime().toLocalDate())
-                .distinct()
-                .count();
-
-        return daysWithRecords > 0 ? totalHours / daysWithRecords : 0.0;
+        return ArrivalDistributionDTO.builder()
+                .officeId(officeId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .checkIns(checkIns.total())
+                .checkInP50(checkIns.percentile(0.50))
+                .checkInP90(checkIns.percentile(0.90))
+                .checkInP99(checkIns.percentile(0.99))
+                .lateAfter(lateAfter)
+                .lateCheckIns(checkIns.countAfter(lateAfter))
+                .checkOuts(checkOuts.total())
+                .checkOutP50(checkOuts.percentile(0.50))
+                .checkOutP90(checkOuts.percentile(0.90))
+                .checkOutP99(checkOuts.percentile(0.99))
+                .earlyBefore(earlyBefore)
+                .earlyCheckOuts(checkOuts.countBefore(earlyBefore))
+                .build();
     }
 
-}
\ No newline at end of file
+    // Ad-hoc filter/group-by over the whole history, served by the optional column store
+    public List<AttendanceAnalyticsRowDTO> getAnalytics(
+            LocalDate startDate,
+            LocalDate endDate,
+            AnalyticsGroupBy groupBy,
+            List<Long> officeIds,
+            List<Long> userIds,
+            List<DayOfWeek> weekdays,
+            List<AttendanceStatus> statuses) {
+        return columnStore
+                .orElseThrow(() -> new RuntimeException("Attendance analytics store is disabled"))
+                .aggregate(startDate, endDate, groupBy, officeIds, userIds, weekdays, statuses);
+    }
+}
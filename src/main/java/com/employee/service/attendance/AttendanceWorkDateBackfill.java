@@ -0,0 +1,49 @@
+package com.employee.service.attendance;
+
+import com.employee.model.maintenance.CompletedTask;
+import com.employee.repository.AttendanceRecordJdbcRepository;
+import com.employee.repository.CompletedTaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// Fills attendance_records.work_date for rows written before the column existed.
+// Rejected check-ins and later duplicates of a user's day are left without a work date on
+// purpose, so nulls remain afterwards; instead the first complete run is recorded and later
+// startups skip the update. Every write since the column exists sets work_date itself.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceWorkDateBackfill {
+    static final String TASK = "attendance-work-date-backfill";
+
+    private final AttendanceRecordJdbcRepository attendanceRecordJdbcRepository;
+    private final CompletedTaskRepository completedTaskRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (completedTaskRepository.existsById(TASK)) {
+            return;
+        }
+
+        int updated = attendanceRecordJdbcRepository.backfillWorkDates();
+        if (updated > 0) {
+            log.info("Backfilled work_date on {} attendance records", updated);
+        }
+
+        try {
+            completedTaskRepository.save(CompletedTask.builder()
+                    .name(TASK)
+                    .completedAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Another node finished the same backfill at the same time
+            log.debug("Work date backfill was already recorded as completed");
+        }
+    }
+}
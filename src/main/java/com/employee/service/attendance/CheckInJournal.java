@@ -0,0 +1,150 @@
+package com.employee.service.attendance;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Append-only, memory-mapped journal of accepted check-ins that have not reached the database yet.
+//
+// Layout: a fixed header (magic, version, flushed offset, write offset) followed by fixed-size
+// entries. An entry is written completely before the write offset in the header is advanced,
+// so a torn entry after a crash is never replayed. Once every entry has been flushed both
+// offsets are reset to the start of the entry area.
+public class CheckInJournal implements Closeable {
+    private static final int MAGIC = 0x434B494E; // "CKIN"
+    private static final int VERSION = 1;
+
+    private static final int MAGIC_POS = 0;
+    private static final int VERSION_POS = 4;
+    private static final int FLUSHED_OFFSET_POS = 8;
+    private static final int WRITE_OFFSET_POS = 16;
+
+    static final int HEADER_SIZE = 64;
+    static final int ENTRY_SIZE = 48;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final boolean syncOnAppend;
+
+    // Guarded by this
+    private int flushedOffset;
+    private int writeOffset;
+
+    public CheckInJournal(Path path, int capacityBytes, boolean syncOnAppend) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Never shrink an existing journal that may still hold pending entries
+        long size = Math.max(channel.size(), Math.max(capacityBytes, HEADER_SIZE + ENTRY_SIZE));
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.syncOnAppend = syncOnAppend;
+
+        if (buffer.getInt(MAGIC_POS) == MAGIC) {
+            if (buffer.getInt(VERSION_POS) != VERSION) {
+                throw new IOException("Unsupported check-in journal version in " + path);
+            }
+            flushedOffset = (int) buffer.getLong(FLUSHED_OFFSET_POS);
+            writeOffset = (int) buffer.getLong(WRITE_OFFSET_POS);
+        } else {
+            flushedOffset = HEADER_SIZE;
+            writeOffset = HEADER_SIZE;
+            buffer.putInt(MAGIC_POS, MAGIC);
+            buffer.putInt(VERSION_POS, VERSION);
+            writeOffsets();
+            buffer.force();
+        }
+    }
+
+    // Returns false when the journal is full
+    public synchronized boolean append(Entry entry) {
+        if (writeOffset + ENTRY_SIZE > buffer.capacity()) {
+            return false;
+        }
+
+        int pos = writeOffset;
+        buffer.putLong(pos, entry.getUserId());
+        buffer.putLong(pos + 8, entry.getOfficeId());
+        buffer.putLong(pos + 16, entry.getCheckInTime().toEpochSecond(ZoneOffset.UTC));
+        buffer.putDouble(pos + 24, entry.getLatitude());
+        buffer.putDouble(pos + 32, entry.getLongitude());
+        buffer.putInt(pos + 40, entry.getCheckInTime().getNano());
+
+        writeOffset += ENTRY_SIZE;
+        buffer.putLong(WRITE_OFFSET_POS, writeOffset);
+
+        if (syncOnAppend) {
+            buffer.force();
+        }
+        return true;
+    }
+
+    // Oldest entries not yet acknowledged by markFlushed
+    public synchronized List<Entry> readPending(int maxEntries) {
+        int available = (writeOffset - flushedOffset) / ENTRY_SIZE;
+        int count = Math.min(available, maxEntries);
+
+        List<Entry> entries = new ArrayList<>(count);
+        int pos = flushedOffset;
+        for (int i = 0; i < count; i++, pos += ENTRY_SIZE) {
+            entries.add(Entry.builder()
+                    .userId(buffer.getLong(pos))
+                    .officeId(buffer.getLong(pos + 8))
+                    .checkInTime(LocalDateTime.ofEpochSecond(
+                            buffer.getLong(pos + 16), buffer.getInt(pos + 40), ZoneOffset.UTC))
+                    .latitude(buffer.getDouble(pos + 24))
+                    .longitude(buffer.getDouble(pos + 32))
+                    .build());
+        }
+        return entries;
+    }
+
+    public synchronized void markFlushed(int entryCount) {
+        flushedOffset = Math.min(flushedOffset + entryCount * ENTRY_SIZE, writeOffset);
+        if (flushedOffset == writeOffset) {
+            flushedOffset = HEADER_SIZE;
+            writeOffset = HEADER_SIZE;
+        }
+        writeOffsets();
+        buffer.force();
+    }
+
+    public synchronized int pendingCount() {
+        return (writeOffset - flushedOffset) / ENTRY_SIZE;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void writeOffsets() {
+        buffer.putLong(FLUSHED_OFFSET_POS, flushedOffset);
+        buffer.putLong(WRITE_OFFSET_POS, writeOffset);
+    }
+
+    @Value
+    @Builder
+    public static class Entry {
+        long userId;
+        long officeId;
+        LocalDateTime checkInTime;
+        double latitude;
+        double longitude;
+    }
+}
@@ -0,0 +1,200 @@
+package com.employee.service.attendance;
+
+import com.employee.dto.attendance.DroppedCheckInDTO;
+import com.employee.model.attendance.AttendanceTransition;
+import com.employee.repository.AttendanceRecordJdbcRepository;
+import com.employee.repository.AttendanceRecordJdbcRepository.CheckInRow;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayKey;
+import com.employee.repository.AttendanceRollupJdbcRepository.HistogramEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Optional write-behind mode for check-ins.
+// Accepted check-ins are appended to a local memory-mapped journal and acknowledged right away;
+// a background writer flushes them to attendance_records in JDBC batches. Pending entries are
+// replayed on startup, so a crash between acknowledgement and flush loses nothing; replaying an
+// entry that already reached the database is a no-op thanks to the (user, work date) constraint.
+// By default the journal relies on the OS page cache, which survives a process crash; enable
+// sync-on-append to also survive power loss at the cost of an msync per check-in.
+// A check-in is acknowledged before the database has seen it, so one can still lose to a record
+// written meanwhile, e.g. on another node. Such a check-in is dropped at flush time: a
+// CHECK_IN_REVOKED event retracts the presence that was announced for it, the user's status
+// is re-read from the record that won, and the entry is kept in a bounded list for admins.
+@Service
+@ConditionalOnProperty(name = "attendance.write-behind.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CheckInWriteBehindService {
+    private final AttendanceRecordJdbcRepository attendanceRecordJdbcRepository;
+    private final AttendanceStateStore stateStore;
+    private final AttendanceRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final OfficeOccupancyTracker occupancyTracker;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${attendance.write-behind.journal-path:data/check-in.journal}")
+    private String journalPath;
+
+    @Value("${attendance.write-behind.journal-size-mb:64}")
+    private int journalSizeMb;
+
+    @Value("${attendance.write-behind.sync-on-append:false}")
+    private boolean syncOnAppend;
+
+    @Value("${attendance.write-behind.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${attendance.write-behind.dropped-history:1000}")
+    private int droppedHistory;
+
+    private CheckInJournal journal;
+
+    // Most recent last; guarded by itself
+    private final Deque<DroppedCheckInDTO> dropped = new ArrayDeque<>();
+
+    @PostConstruct
+    public void open() throws IOException {
+        journal = new CheckInJournal(Path.of(journalPath), journalSizeMb * 1024 * 1024, syncOnAppend);
+
+        int pending = journal.pendingCount();
+        if (pending > 0) {
+            log.info("Replaying {} journaled check-ins from {}", pending, journalPath);
+            flush();
+        }
+    }
+
+    // Returns false when the journal is full and the caller has to write synchronously
+    public boolean enqueue(Long userId, Long officeId, LocalDateTime checkInTime, double latitude, double longitude) {
+        return journal.append(CheckInJournal.Entry.builder()
+                .userId(userId)
+                .officeId(officeId)
+                .checkInTime(checkInTime)
+                .latitude(latitude)
+                .longitude(longitude)
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${attendance.write-behind.flush-interval-ms:200}")
+    public void flushScheduled() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to flush journaled check-ins, will retry", e);
+        }
+    }
+
+    // Drains the journal into the database. Also called before reading a record that may still be pending.
+    public synchronized void flush() {
+        List<CheckInJournal.Entry> entries;
+        while (!(entries = journal.readPending(batchSize)).isEmpty()) {
+            List<CheckInRow> rows = entries.stream()
+                    .map(entry -> CheckInRow.builder()
+                            .userId(entry.getUserId())
+                            .officeId(entry.getOfficeId())
+                            .checkInTime(entry.getCheckInTime())
+                            .latitude(entry.getLatitude())
+                            .longitude(entry.getLongitude())
+                            .build())
+                    .toList();
+            // The records, their rollups and histograms commit together, and the entries are only marked
+            // flushed after that; replaying entries whose transaction did commit is a no-op since the
+            // insert skips them and only the check-ins written now are counted
+            Set<DayKey> inserted = transactionTemplate.execute(status -> {
+                Set<DayKey> keys = attendanceRecordJdbcRepository.insertCheckIns(rows);
+                List<CheckInRow> written = rows.stream()
+                        .filter(row -> keys.contains(
+                                new DayKey(row.getUserId(), row.getCheckInTime().toLocalDate())))
+                        .toList();
+                rollupService.recordCheckIns(written);
+                rollupService.addToHistograms(written.stream()
+                        .map(row -> HistogramEvent.checkIn(row.getOfficeId(), row.getCheckInTime()))
+                        .toList());
+                return keys;
+            });
+            journal.markFlushed(entries.size());
+
+            // The store only knows these check-ins without a record id, reload them on next access.
+            // Today's entries that lost to an existing record, such as one written on another node,
+            // give back the place taken when they were accepted.
+            LocalDate today = LocalDate.now();
+            Map<Long, Integer> conflictsByOffice = new HashMap<>();
+            for (CheckInRow row : rows) {
+                LocalDate day = row.getCheckInTime().toLocalDate();
+                boolean isToday = today.equals(day);
+                if (isToday) {
+                    stateStore.evict(row.getUserId());
+                }
+                if (!inserted.contains(new DayKey(row.getUserId(), day))) {
+                    if (isToday) {
+                        conflictsByOffice.merge(row.getOfficeId(), 1, Integer::sum);
+                    }
+                    revoke(row);
+                }
+            }
+            conflictsByOffice.forEach(occupancyTracker::leave);
+
+            log.debug("Flushed {} journaled check-ins", entries.size());
+        }
+    }
+
+    public List<DroppedCheckInDTO> getDroppedCheckIns() {
+        synchronized (dropped) {
+            return List.copyOf(dropped);
+        }
+    }
+
+    private void revoke(CheckInRow row) {
+        log.warn("Dropped journaled check-in of user {} at office {} from {}, a record for that day already exists",
+                row.getUserId(), row.getOfficeId(), row.getCheckInTime());
+        synchronized (dropped) {
+            dropped.addLast(DroppedCheckInDTO.builder()
+                    .userId(row.getUserId())
+                    .officeId(row.getOfficeId())
+                    .checkInTime(row.getCheckInTime())
+                    .droppedAt(LocalDateTime.now())
+                    .build());
+            while (dropped.size() > droppedHistory) {
+                dropped.removeFirst();
+            }
+        }
+        eventPublisher.publishEvent(AttendanceChangedEvent.builder()
+                .type(AttendanceTransition.CHECK_IN_REVOKED)
+                .userId(row.getUserId())
+                .officeId(row.getOfficeId())
+                .workDate(row.getCheckInTime().toLocalDate())
+                .checkInTime(row.getCheckInTime())
+                .build());
+    }
+
+    public int pendingCount() {
+        return journal.pendingCount();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            journal.close();
+        }
+    }
+}
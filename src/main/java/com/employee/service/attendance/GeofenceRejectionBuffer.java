@@ -0,0 +1,163 @@
+package com.employee.service.attendance;
+
+import com.employee.repository.GeofenceRejectionJdbcRepository;
+import com.employee.repository.GeofenceRejectionJdbcRepository.RejectionRow;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Buffers check-in attempts rejected by the geofence as per-user, per-day counters
+// (first/last attempt, attempt count, nearest distance) and periodically merges them
+// into geofence_rejections, instead of inserting an attendance record per attempt.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeofenceRejectionBuffer {
+    private final GeofenceRejectionJdbcRepository geofenceRejectionJdbcRepository;
+
+    private final Map<Key, Counter> counters = new ConcurrentHashMap<>();
+
+    public void record(Long userId, Long nearestOfficeId, LocalDateTime attemptAt, double distanceMeters) {
+        counters.compute(new Key(userId, attemptAt.toLocalDate()), (key, counter) -> {
+            if (counter == null) {
+                counter = new Counter(attemptAt, nearestOfficeId, distanceMeters);
+            }
+            counter.add(attemptAt, nearestOfficeId, distanceMeters);
+            return counter;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${attendance.geofence-rejections.flush-interval-ms:30000}")
+    public void flushScheduled() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to flush geofence rejection counters", e);
+        }
+    }
+
+    public synchronized void flush() {
+        List<RejectionRow> rows = new ArrayList<>();
+        for (Key key : counters.keySet()) {
+            // Once removed, a counter can no longer be updated by record()
+            Counter counter = counters.remove(key);
+            if (counter != null) {
+                rows.add(RejectionRow.builder()
+                        .userId(key.userId)
+                        .officeId(counter.nearestOfficeId)
+                        .workDate(key.workDate)
+                        .firstAttemptAt(counter.firstAttemptAt)
+                        .lastAttemptAt(counter.lastAttemptAt)
+                        .attemptCount(counter.attempts)
+                        .nearestDistanceMeters(counter.nearestDistanceMeters)
+                        .build());
+            }
+        }
+
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            geofenceRejectionJdbcRepository.batchUpsert(rows);
+        } catch (RuntimeException e) {
+            // Put the counters back so the next flush retries them
+            rows.forEach(row -> counters.merge(
+                    new Key(row.getUserId(), row.getWorkDate()),
+                    new Counter(row),
+                    Counter::merge));
+            throw e;
+        }
+        log.debug("Flushed {} geofence rejection counters", rows.size());
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    private static final class Key {
+        final long userId;
+        final LocalDate workDate;
+
+        Key(long userId, LocalDate workDate) {
+            this.userId = userId;
+            this.workDate = workDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return userId == other.userId && workDate.equals(other.workDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, workDate);
+        }
+    }
+
+    // Mutated only inside ConcurrentHashMap.compute/merge for its key
+    private static final class Counter {
+        LocalDateTime firstAttemptAt;
+        LocalDateTime lastAttemptAt;
+        int attempts;
+        Long nearestOfficeId;
+        double nearestDistanceMeters;
+
+        Counter(LocalDateTime attemptAt, Long officeId, double distanceMeters) {
+            this.firstAttemptAt = attemptAt;
+            this.lastAttemptAt = attemptAt;
+            this.nearestOfficeId = officeId;
+            this.nearestDistanceMeters = distanceMeters;
+        }
+
+        Counter(RejectionRow row) {
+            this.firstAttemptAt = row.getFirstAttemptAt();
+            this.lastAttemptAt = row.getLastAttemptAt();
+            this.attempts = row.getAttemptCount();
+            this.nearestOfficeId = row.getOfficeId();
+            this.nearestDistanceMeters = row.getNearestDistanceMeters();
+        }
+
+        void add(LocalDateTime attemptAt, Long officeId, double distanceMeters) {
+            if (attemptAt.isBefore(firstAttemptAt)) {
+                firstAttemptAt = attemptAt;
+            }
+            if (attemptAt.isAfter(lastAttemptAt)) {
+                lastAttemptAt = attemptAt;
+            }
+            if (distanceMeters < nearestDistanceMeters) {
+                nearestDistanceMeters = distanceMeters;
+                nearestOfficeId = officeId;
+            }
+            attempts++;
+        }
+
+        Counter merge(Counter other) {
+            if (other.firstAttemptAt.isBefore(firstAttemptAt)) {
+                firstAttemptAt = other.firstAttemptAt;
+            }
+            if (other.lastAttemptAt.isAfter(lastAttemptAt)) {
+                lastAttemptAt = other.lastAttemptAt;
+            }
+            if (other.nearestDistanceMeters < nearestDistanceMeters) {
+                nearestDistanceMeters = other.nearestDistanceMeters;
+                nearestOfficeId = other.nearestOfficeId;
+            }
+            attempts += other.attempts;
+            return this;
+        }
+    }
+}
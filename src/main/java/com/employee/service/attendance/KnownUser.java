@@ -0,0 +1,24 @@
+package com.employee.service.attendance;
+
+import com.employee.model.user.User;
+import lombok.Value;
+
+// Id and display name of a user, cached per email by AttendanceStateStore so attendance
+// transitions do not read the users table
+@Value
+public class KnownUser {
+    Long id;
+    String email;
+    String firstName;
+    String lastName;
+
+    // Detached and never saved; carries only what attendance events and DTOs show
+    public User toUser() {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .firstName(firstName)
+                .lastName(lastName)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.employee.service.attendance;
+
+import java.time.LocalTime;
+
+// Counts of events per minute of the day. Histograms of different days or offices are merged
+// by adding buckets, so a range costs 1440 additions per stored day at most, and percentiles
+// and threshold counts are one walk over the buckets. Resolution is one minute.
+final class MinuteHistogram {
+    static final int MINUTES_PER_DAY = 1440;
+
+    private final int[] buckets = new int[MINUTES_PER_DAY];
+    private long total;
+
+    // Adds a stored day: non-empty minutes and their counts as parallel arrays
+    void add(int[] minutes, int[] counts) {
+        for (int i = 0; i < minutes.length; i++) {
+            buckets[minutes[i]] += counts[i];
+            total += counts[i];
+        }
+    }
+
+    MinuteHistogram merge(MinuteHistogram other) {
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            buckets[minute] += other.buckets[minute];
+        }
+        total += other.total;
+        return this;
+    }
+
+    long total() {
+        return total;
+    }
+
+    // Nearest-rank percentile as the start of its minute; null when the histogram is empty
+    LocalTime percentile(double fraction) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            seen += buckets[minute];
+            if (seen >= rank) {
+                return toTime(minute);
+            }
+        }
+        return toTime(MINUTES_PER_DAY - 1);
+    }
+
+    // Events in minutes after the one containing the given time
+    long countAfter(LocalTime time) {
+        long count = 0;
+        for (int minute = toMinute(time) + 1; minute < MINUTES_PER_DAY; minute++) {
+            count += buckets[minute];
+        }
+        return count;
+    }
+
+    // Events in minutes before the one containing the given time
+    long countBefore(LocalTime time) {
+        long count = 0;
+        for (int minute = 0; minute < toMinute(time); minute++) {
+            count += buckets[minute];
+        }
+        return count;
+    }
+
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static LocalTime toTime(int minute) {
+        return LocalTime.of(minute / 60, minute % 60);
+    }
+}
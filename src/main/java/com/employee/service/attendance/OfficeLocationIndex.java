@@ -0,0 +1,288 @@
+package com.employee.service.attendance;
+
+import com.employee.model.checkin.OfficeLocation;
+import com.employee.repository.OfficeLocationRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// In-memory grid index over the active office geofences.
+// Offices are bucketed into fixed-size lat/lng cells covering their radius, with radians,
+// cosines and the haversine threshold precomputed, so resolving the geofence(s) containing
+// a coordinate only touches the handful of offices registered in a single cell.
+// The index is an immutable snapshot that is swapped atomically on rebuild.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OfficeLocationIndex {
+    static final double EARTH_RADIUS_METERS = 6371000;
+
+    // ~1.1 km along a meridian
+    private static final double CELL_SIZE_DEGREES = 0.01;
+    // Offices covering more cells than this are checked on every lookup instead
+    private static final int MAX_CELLS_PER_OFFICE = 4096;
+
+    private final OfficeLocationRepository officeLocationRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<OfficeLocation> offices = officeLocationRepository.findByIsActiveTrue();
+        snapshot = Snapshot.build(offices);
+        log.info("Office location index rebuilt with {} active offices", snapshot.entries.length);
+    }
+
+    // Offices are maintained outside the application, so pick up changes periodically
+    @Scheduled(
+            fixedDelayString = "${attendance.office-index.refresh-interval-ms:300000}",
+            initialDelayString = "${attendance.office-index.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Failed to refresh office location index, keeping previous snapshot", e);
+        }
+    }
+
+    public List<OfficeLocation> getOffices() {
+        Entry[] entries = snapshot.entries;
+        List<OfficeLocation> offices = new ArrayList<>(entries.length);
+        for (Entry entry : entries) {
+            offices.add(entry.office);
+        }
+        return offices;
+    }
+
+    public Optional<OfficeLocation> getOffice(Long officeId) {
+        Entry entry = snapshot.byId.get(officeId);
+        return entry != null ? Optional.of(entry.office) : Optional.empty();
+    }
+
+    // All active offices whose geofence contains the coordinate, nearest first
+    public List<OfficeMatch> findContaining(double latitude, double longitude) {
+        Snapshot current = snapshot;
+        Entry[] candidates = current.cells.get(cellKey(latitude, longitude));
+        if (candidates == null && current.oversized.length == 0) {
+            return Collections.emptyList();
+        }
+
+        double latRad = Math.toRadians(latitude);
+        double lngRad = Math.toRadians(longitude);
+        double cosLat = Math.cos(latRad);
+
+        List<OfficeMatch> matches = new ArrayList<>(2);
+        if (candidates != null) {
+            collectContaining(candidates, latRad, lngRad, cosLat, matches);
+        }
+        collectContaining(current.oversized, latRad, lngRad, cosLat, matches);
+
+        if (matches.size() > 1) {
+            matches.sort((a, b) -> Double.compare(a.distanceMeters, b.distanceMeters));
+        }
+        return matches;
+    }
+
+    // Resolves the office to check in to, preferring the requested office when the coordinate
+    // lies inside its geofence and otherwise falling back to the nearest containing geofence
+    public Optional<OfficeMatch> resolve(double latitude, double longitude, Long preferredOfficeId) {
+        List<OfficeMatch> matches = findContaining(latitude, longitude);
+        if (matches.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (preferredOfficeId != null) {
+            for (OfficeMatch match : matches) {
+                if (preferredOfficeId.equals(match.office.getId())) {
+                    return Optional.of(match);
+                }
+            }
+        }
+        return Optional.of(matches.get(0));
+    }
+
+    // Nearest active office regardless of radius. Scans every office, so only use off the hot path.
+    public Optional<OfficeMatch> nearest(double latitude, double longitude) {
+        double latRad = Math.toRadians(latitude);
+        double lngRad = Math.toRadians(longitude);
+        double cosLat = Math.cos(latRad);
+
+        Entry best = null;
+        double bestHaversine = Double.MAX_VALUE;
+        for (Entry entry : snapshot.entries) {
+            double a = entry.haversine(latRad, lngRad, cosLat);
+            if (a < bestHaversine) {
+                bestHaversine = a;
+                best = entry;
+            }
+        }
+        return best != null
+                ? Optional.of(new OfficeMatch(best.office, toMeters(bestHaversine)))
+                : Optional.empty();
+    }
+
+    public boolean isWithinRadius(OfficeLocation office, double latitude, double longitude) {
+        Entry entry = snapshot.byId.get(office.getId());
+        if (entry != null) {
+            double latRad = Math.toRadians(latitude);
+            return entry.haversine(latRad, Math.toRadians(longitude), Math.cos(latRad)) <= entry.maxHaversine;
+        }
+
+        // Inactive or not yet indexed office
+        return distanceMeters(latitude, longitude, office.getLatitude(), office.getLongitude())
+                <= office.getAllowedRadius();
+    }
+
+    // Calculate distance using Haversine formula
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                        Math.sin(dLng / 2) * Math.sin(dLng / 2);
+
+        return toMeters(a);
+    }
+
+    private static void collectContaining(
+            Entry[] entries,
+            double latRad,
+            double lngRad,
+            double cosLat,
+            List<OfficeMatch> matches) {
+        for (Entry entry : entries) {
+            double a = entry.haversine(latRad, lngRad, cosLat);
+            if (a <= entry.maxHaversine) {
+                matches.add(new OfficeMatch(entry.office, toMeters(a)));
+            }
+        }
+    }
+
+    private static double toMeters(double haversine) {
+        return EARTH_RADIUS_METERS * 2 * Math.atan2(Math.sqrt(haversine), Math.sqrt(1 - haversine));
+    }
+
+    private static long cellKey(double latitude, double longitude) {
+        return cellKey(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private static long cellKey(int latCell, int lngCell) {
+        return ((long) latCell << 32) | (lngCell & 0xffffffffL);
+    }
+
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    @Getter
+    public static final class OfficeMatch {
+        private final OfficeLocation office;
+        private final double distanceMeters;
+
+        OfficeMatch(OfficeLocation office, double distanceMeters) {
+            this.office = office;
+            this.distanceMeters = distanceMeters;
+        }
+    }
+
+    private static final class Entry {
+        final OfficeLocation office;
+        final double latRad;
+        final double lngRad;
+        final double cosLat;
+        // sin^2(radius / 2R): a point is inside the geofence when its haversine term is at most this
+        final double maxHaversine;
+
+        Entry(OfficeLocation office) {
+            this.office = office;
+            this.latRad = Math.toRadians(office.getLatitude());
+            this.lngRad = Math.toRadians(office.getLongitude());
+            this.cosLat = Math.cos(latRad);
+            double halfAngle = Math.min(office.getAllowedRadius() / EARTH_RADIUS_METERS, Math.PI) / 2;
+            this.maxHaversine = Math.sin(halfAngle) * Math.sin(halfAngle);
+        }
+
+        double haversine(double otherLatRad, double otherLngRad, double otherCosLat) {
+            double sinDLat = Math.sin((otherLatRad - latRad) / 2);
+            double sinDLng = Math.sin((otherLngRad - lngRad) / 2);
+            return sinDLat * sinDLat + cosLat * otherCosLat * sinDLng * sinDLng;
+        }
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Entry[0], Map.of(), Map.of(), new Entry[0]);
+
+        final Entry[] entries;
+        final Map<Long, Entry> byId;
+        final Map<Long, Entry[]> cells;
+        final Entry[] oversized;
+
+        Snapshot(Entry[] entries, Map<Long, Entry> byId, Map<Long, Entry[]> cells, Entry[] oversized) {
+            this.entries = entries;
+            this.byId = byId;
+            this.cells = cells;
+            this.oversized = oversized;
+        }
+
+        static Snapshot build(List<OfficeLocation> offices) {
+            List<Entry> entries = new ArrayList<>(offices.size());
+            Map<Long, Entry> byId = new HashMap<>();
+            Map<Long, List<Entry>> cellLists = new HashMap<>();
+            List<Entry> oversized = new ArrayList<>();
+
+            for (OfficeLocation office : offices) {
+                if (office.getLatitude() == null || office.getLongitude() == null
+                        || office.getAllowedRadius() == null) {
+                    log.warn("Skipping office {} without coordinates or radius", office.getId());
+                    continue;
+                }
+
+                Entry entry = new Entry(office);
+                entries.add(entry);
+                byId.put(office.getId(), entry);
+
+                double radiusDegrees = Math.toDegrees(office.getAllowedRadius() / EARTH_RADIUS_METERS);
+                double lngRadiusDegrees = radiusDegrees / Math.max(Math.cos(entry.latRad), 1e-6);
+
+                int minLatCell = cellIndex(office.getLatitude() - radiusDegrees);
+                int maxLatCell = cellIndex(office.getLatitude() + radiusDegrees);
+                int minLngCell = cellIndex(office.getLongitude() - lngRadiusDegrees);
+                int maxLngCell = cellIndex(office.getLongitude() + lngRadiusDegrees);
+
+                long cellCount = (long) (maxLatCell - minLatCell + 1) * (maxLngCell - minLngCell + 1);
+                if (cellCount > MAX_CELLS_PER_OFFICE) {
+                    oversized.add(entry);
+                    continue;
+                }
+
+                for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+                    for (int lngCell = minLngCell; lngCell <= maxLngCell; lngCell++) {
+                        cellLists.computeIfAbsent(cellKey(latCell, lngCell), k -> new ArrayList<>(1))
+                                .add(entry);
+                    }
+                }
+            }
+
+            Map<Long, Entry[]> cells = new HashMap<>(cellLists.size() * 2);
+            cellLists.forEach((key, list) -> cells.put(key, list.toArray(new Entry[0])));
+
+            return new Snapshot(
+                    entries.toArray(new Entry[0]),
+                    Collections.unmodifiableMap(byId),
+                    Collections.unmodifiableMap(cells),
+                    oversized.toArray(new Entry[0]));
+        }
+    }
+}
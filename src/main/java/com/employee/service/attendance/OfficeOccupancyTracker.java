@@ -0,0 +1,82 @@
+package com.employee.service.attendance;
+
+import com.employee.model.checkin.OfficeLocation;
+import com.employee.repository.AttendanceRecordJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Live number of people checked in per office today, maintained incrementally by every
+// check-in/check-out path and reconciled from today's open records at startup and when the
+// day rolls over. Records left open from earlier days are not counted; the nightly
+// auto check-out closes them.
+// Counters are plain atomics rather than striped adders so that the optional office
+// capacity can be enforced with a single compare-and-set, without a database round trip.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OfficeOccupancyTracker {
+    private final AttendanceRecordJdbcRepository attendanceRecordJdbcRepository;
+
+    private final Map<Long, AtomicInteger> occupancy = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        Map<Long, Integer> openByOffice = attendanceRecordJdbcRepository.countOpenCheckInsByOffice(LocalDate.now());
+        occupancy.keySet().retainAll(openByOffice.keySet());
+        openByOffice.forEach((officeId, count) -> counter(officeId).set(count));
+        log.info("Reconciled occupancy for {} offices", openByOffice.size());
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rollOver() {
+        reconcile();
+    }
+
+    // Reserves a place in the office; returns false when the office is at capacity
+    public boolean tryEnter(OfficeLocation office) {
+        AtomicInteger counter = counter(office.getId());
+        Integer capacity = office.getCapacity();
+        if (capacity == null) {
+            counter.incrementAndGet();
+            return true;
+        }
+
+        int current;
+        do {
+            current = counter.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public void leave(Long officeId) {
+        leave(officeId, 1);
+    }
+
+    public void leave(Long officeId, int count) {
+        if (officeId == null) {
+            return;
+        }
+        counter(officeId).getAndUpdate(current -> Math.max(0, current - count));
+    }
+
+    public int getOccupancy(Long officeId) {
+        AtomicInteger counter = occupancy.get(officeId);
+        return counter != null ? counter.get() : 0;
+    }
+
+    private AtomicInteger counter(Long officeId) {
+        return occupancy.computeIfAbsent(officeId, id -> new AtomicInteger());
+    }
+}
@@ -0,0 +1,290 @@
+package com.employee.service.attendance;
+
+import com.employee.dto.attendance.OfficePresenceSnapshotDTO;
+import com.employee.dto.attendance.PresenceEventDTO;
+import com.employee.model.attendance.AttendanceStatus;
+import com.employee.model.attendance.AttendanceTransition;
+import com.employee.repository.AttendanceRecordRepository;
+import com.employee.repository.projection.PresentUserView;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Pushes per-office presence changes to reception dashboards over Server-Sent Events.
+// Each subscriber gets a snapshot of who is checked in on connect, followed by incremental
+// events from the attendance write path. Events are queued per subscriber in a bounded buffer
+// and written by a small shared pool, so idle connections hold no thread and a slow client
+// cannot stall check-ins; a subscriber that overflows its buffer is disconnected and
+// picks up a fresh snapshot when it reconnects.
+// A send blocks until the container has written it, so a client that stops reading would
+// keep a dispatch thread. Sends running past the send timeout drop their subscriber, and the
+// pool gets a spare thread until the stuck send returns, so other subscribers keep flowing.
+@Service
+@Slf4j
+public class OfficePresenceStreamService {
+    private static final Object HEARTBEAT = new Object();
+
+    private final AttendanceRecordRepository attendanceRecordRepository;
+    private final OfficeLocationIndex officeLocationIndex;
+    private final Map<Long, Set<Subscriber>> subscribersByOffice = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor dispatcher;
+    private final int dispatchThreads;
+    private final AtomicInteger stalledSends = new AtomicInteger();
+    private final long timeoutMs;
+    private final long sendTimeoutNanos;
+    private final int bufferSize;
+
+    public OfficePresenceStreamService(
+            AttendanceRecordRepository attendanceRecordRepository,
+            OfficeLocationIndex officeLocationIndex,
+            @Value("${attendance.presence-stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${attendance.presence-stream.buffer-size:256}") int bufferSize,
+            @Value("${attendance.presence-stream.dispatch-threads:2}") int dispatchThreads,
+            @Value("${attendance.presence-stream.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.attendanceRecordRepository = attendanceRecordRepository;
+        this.officeLocationIndex = officeLocationIndex;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.bufferSize = bufferSize;
+        this.dispatchThreads = dispatchThreads;
+
+        // Core size is the working size; the maximum only has to allow the spare threads,
+        // the unbounded queue never starts threads beyond the core
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(
+                dispatchThreads,
+                Integer.MAX_VALUE,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "presence-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public SseEmitter subscribe(Long officeId) {
+        if (officeLocationIndex.getOffice(officeId).isEmpty()) {
+            throw new RuntimeException("Office not found");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(officeId, emitter, bufferSize);
+
+        // Register before taking the snapshot so no event falls in between. Events arriving
+        // meanwhile are only queued; nothing is sent until the snapshot is in front of them, so
+        // the client applies them on top of it. An event that is also reflected in the snapshot
+        // is harmless to replay.
+        subscribersByOffice.computeIfAbsent(officeId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        if (!subscriber.queue.offerFirst(snapshot(officeId))) {
+            log.info("Presence subscriber for office {} fell behind before its snapshot, disconnecting", officeId);
+            unsubscribe(subscriber);
+            emitter.complete();
+            return emitter;
+        }
+        subscriber.ready = true;
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @EventListener
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        if (event.getOfficeId() == null) {
+            return;
+        }
+        Set<Subscriber> subscribers = subscribersByOffice.get(event.getOfficeId());
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+
+        PresenceEventDTO payload = PresenceEventDTO.builder()
+                .type(event.getType())
+                .userId(event.getUserId())
+                .userName(event.getUserName())
+                .officeId(event.getOfficeId())
+                .checkInTime(event.getCheckInTime())
+                .checkOutTime(event.getCheckOutTime())
+                .build();
+
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offerLast(payload)) {
+                schedule(subscriber);
+            } else {
+                log.info("Presence subscriber for office {} fell behind, disconnecting", subscriber.officeId);
+                unsubscribe(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and detects clients that went away
+    @Scheduled(fixedDelayString = "${attendance.presence-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribersByOffice.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            if (subscriber.queue.isEmpty() && subscriber.queue.offerLast(HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }));
+    }
+
+    // Drops subscribers whose current send has not returned within the send timeout
+    @Scheduled(fixedDelayString = "${attendance.presence-stream.stall-check-ms:1000}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        subscribersByOffice.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            long startedAt = subscriber.sendStartedAt.get();
+            if (startedAt == Subscriber.IDLE || startedAt == Subscriber.STALLED
+                    || now - startedAt < sendTimeoutNanos
+                    || !subscriber.sendStartedAt.compareAndSet(startedAt, Subscriber.STALLED)) {
+                return;
+            }
+            log.info("Presence subscriber for office {} stopped reading, disconnecting", subscriber.officeId);
+            unsubscribe(subscriber);
+            subscriber.dropped = true;
+            subscriber.queue.clear();
+            resizeDispatcher(stalledSends.incrementAndGet());
+        }));
+    }
+
+    public int subscriberCount() {
+        return subscribersByOffice.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribersByOffice.values().forEach(subscribers ->
+                subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribersByOffice.clear();
+    }
+
+    private OfficePresenceSnapshotDTO snapshot(Long officeId) {
+        LocalDate today = LocalDate.now();
+        return OfficePresenceSnapshotDTO.builder()
+                .officeId(officeId)
+                .date(today)
+                .present(attendanceRecordRepository
+                        .findPresentUsers(officeId, today, AttendanceStatus.CHECKED_IN)
+                        .stream()
+                        .map(user -> toPresent(officeId, user))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private static PresenceEventDTO toPresent(Long officeId, PresentUserView user) {
+        return PresenceEventDTO.builder()
+                .type(AttendanceTransition.CHECKED_IN)
+                .userId(user.getUserId())
+                .userName(user.getFirstName() + " " + user.getLastName())
+                .officeId(officeId)
+                .checkInTime(user.getCheckInTime())
+                .build();
+    }
+
+    // Until its snapshot is queued a subscriber only collects events
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.ready && subscriber.scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Object item;
+            while (!subscriber.dropped && (item = subscriber.queue.pollFirst()) != null) {
+                send(subscriber, item);
+            }
+            if (subscriber.dropped) {
+                subscriber.emitter.complete();
+                return;
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Presence subscriber for office {} disconnected", subscriber.officeId);
+            unsubscribe(subscriber);
+            subscriber.queue.clear();
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+
+        // Items queued while this drain was finishing
+        if (!subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, Object item) throws IOException {
+        subscriber.sendStartedAt.set(System.nanoTime());
+        try {
+            if (item == HEARTBEAT) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else if (item instanceof OfficePresenceSnapshotDTO) {
+                subscriber.emitter.send(SseEmitter.event().name("snapshot").data(item));
+            } else {
+                PresenceEventDTO event = (PresenceEventDTO) item;
+                subscriber.emitter.send(SseEmitter.event().name(event.getType().name()).data(event));
+            }
+        } finally {
+            // The spare thread started for a stalled send is retired once the send returns
+            if (subscriber.sendStartedAt.getAndSet(Subscriber.IDLE) == Subscriber.STALLED) {
+                resizeDispatcher(stalledSends.decrementAndGet());
+            }
+        }
+    }
+
+    // One spare thread per send stuck in a dropped subscriber; idle extra threads time out
+    private synchronized void resizeDispatcher(int stalled) {
+        dispatcher.setCorePoolSize(dispatchThreads + Math.max(0, stalled));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        Set<Subscriber> subscribers = subscribersByOffice.get(subscriber.officeId);
+        if (subscribers != null) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private static final class Subscriber {
+        static final long IDLE = Long.MIN_VALUE;
+        static final long STALLED = Long.MAX_VALUE;
+
+        final Long officeId;
+        final SseEmitter emitter;
+        final BlockingDeque<Object> queue;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // System.nanoTime() when the running send started, IDLE between sends, STALLED once dropped for it
+        final AtomicLong sendStartedAt = new AtomicLong(IDLE);
+        volatile boolean dropped;
+        volatile boolean ready;
+
+        Subscriber(Long officeId, SseEmitter emitter, int bufferSize) {
+            this.officeId = officeId;
+            this.emitter = emitter;
+            // One extra slot so the snapshot always fits in front of the buffered events
+            this.queue = new LinkedBlockingDeque<>(bufferSize + 1);
+        }
+    }
+}
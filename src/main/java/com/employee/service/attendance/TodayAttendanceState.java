@@ -0,0 +1,53 @@
+package com.employee.service.attendance;
+
+import com.employee.model.attendance.AttendanceRecord;
+import com.employee.model.attendance.AttendanceStatus;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayRecord;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Snapshot of a user's attendance record for a single day, held by AttendanceStateStore.
+// A null status means the user has no attendance record for that day yet.
+@Value
+@Builder(toBuilder = true)
+public class TodayAttendanceState {
+    LocalDate date;
+    Long recordId;
+    AttendanceStatus status;
+    Long officeId;
+    LocalDateTime checkInTime;
+    LocalDateTime checkOutTime;
+
+    public static TodayAttendanceState none(LocalDate date) {
+        return TodayAttendanceState.builder()
+                .date(date)
+                .build();
+    }
+
+    public static TodayAttendanceState of(AttendanceRecord record) {
+        return TodayAttendanceState.builder()
+                .date(record.getWorkDate() != null
+                        ? record.getWorkDate()
+                        : record.getCheckInTime().toLocalDate())
+                .recordId(record.getId())
+                .status(record.getStatus())
+                .officeId(record.getOffice() != null ? record.getOffice().getId() : null)
+                .checkInTime(record.getCheckInTime())
+                .checkOutTime(record.getCheckOutTime())
+                .build();
+    }
+
+    public static TodayAttendanceState of(DayRecord record) {
+        return TodayAttendanceState.builder()
+                .date(record.getCheckInTime().toLocalDate())
+                .recordId(record.getId())
+                .status(record.getStatus())
+                .officeId(record.getOfficeId())
+                .checkInTime(record.getCheckInTime())
+                .checkOutTime(record.getCheckOutTime())
+                .build();
+    }
+}
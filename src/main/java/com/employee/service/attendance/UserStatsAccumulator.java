@@ -0,0 +1,160 @@
+package com.employee.service.attendance;
+
+import com.employee.dto.DailyStatsDTO;
+import com.employee.dto.attendance.AttendanceStatsField;
+import com.employee.dto.user.UserAttendanceStatsDTO;
+import com.employee.repository.AttendanceStatsJdbcRepository.RollupDay;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Computes every metric of UserAttendanceStatsDTO in a single pass over rollup days.
+// Counters are primitives, and attended/present days are bits indexed from the start of the
+// range instead of LocalDate sets, so accumulators over parts of the same range can be
+// merged without counting a day twice. Only the requested metric groups are filled in; the
+// daily breakdown, the costly part, is not built at all unless it is asked for.
+final class UserStatsAccumulator {
+    private static final Set<AttendanceStatsField> ALL_FIELDS = EnumSet.allOf(AttendanceStatsField.class);
+
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final Set<AttendanceStatsField> fields;
+    private final long[] recordDays;
+    private final long[] presentDays;
+    private final List<DailyStatsDTO> dailyStats = new ArrayList<>();
+
+    private long recordCount;
+    private long attendanceMinutes;
+    private long checkInSecondsSum;
+    private long checkOutCount;
+    private long checkOutSecondsSum;
+    private int lateCheckIns;
+    private int earlyCheckOuts;
+    private double trackedHours;
+
+    UserStatsAccumulator(LocalDate startDate, LocalDate endDate) {
+        this(startDate, endDate, ALL_FIELDS);
+    }
+
+    UserStatsAccumulator(LocalDate startDate, LocalDate endDate, Set<AttendanceStatsField> fields) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.fields = fields;
+        int words = (int) ((Math.max(0, ChronoUnit.DAYS.between(startDate, endDate)) >> 6) + 1);
+        this.recordDays = new long[words];
+        this.presentDays = new long[words];
+    }
+
+    void add(RollupDay day) {
+        long index = ChronoUnit.DAYS.between(startDate, day.getDate());
+        if (index < 0 || day.getDate().isAfter(endDate)) {
+            return;
+        }
+
+        trackedHours += day.getTrackedHours();
+        if (day.getRecordCount() == 0) {
+            return;
+        }
+
+        recordDays[(int) (index >> 6)] |= 1L << index;
+        if (day.isPresent()) {
+            presentDays[(int) (index >> 6)] |= 1L << index;
+        }
+        recordCount += day.getRecordCount();
+        attendanceMinutes += day.getAttendanceMinutes();
+        checkInSecondsSum += day.getCheckInSecondsSum();
+        checkOutCount += day.getCheckOutCount();
+        checkOutSecondsSum += day.getCheckOutSecondsSum();
+        lateCheckIns += day.getLateCheckIns();
+        earlyCheckOuts += day.getEarlyCheckOuts();
+
+        if (!fields.contains(AttendanceStatsField.DAILY)) {
+            return;
+        }
+        dailyStats.add(DailyStatsDTO.builder()
+                .date(day.getDate())
+                .checkInTime(day.getFirstCheckIn())
+                .checkOutTime(day.getLastCheckOut())
+                .attendanceHours(day.getAttendanceMinutes() / 60.0)
+                .trackedHours(day.getTrackedHours())
+                .status(day.getStatus())
+                .isLateCheckIn(day.getLateCheckIns() > 0)
+                .isEarlyCheckOut(day.getEarlyCheckOuts() > 0)
+                .build());
+    }
+
+    // Folds another accumulator over a disjoint part of the same range into this one
+    UserStatsAccumulator merge(UserStatsAccumulator other) {
+        if (!startDate.equals(other.startDate) || !endDate.equals(other.endDate)
+                || !fields.equals(other.fields)) {
+            throw new IllegalArgumentException("Cannot merge statistics over different ranges or fields");
+        }
+        for (int i = 0; i < recordDays.length; i++) {
+            recordDays[i] |= other.recordDays[i];
+            presentDays[i] |= other.presentDays[i];
+        }
+        recordCount += other.recordCount;
+        attendanceMinutes += other.attendanceMinutes;
+        checkInSecondsSum += other.checkInSecondsSum;
+        checkOutCount += other.checkOutCount;
+        checkOutSecondsSum += other.checkOutSecondsSum;
+        lateCheckIns += other.lateCheckIns;
+        earlyCheckOuts += other.earlyCheckOuts;
+        trackedHours += other.trackedHours;
+        dailyStats.addAll(other.dailyStats);
+        return this;
+    }
+
+    UserAttendanceStatsDTO toStats(Long userId, String userName) {
+        UserAttendanceStatsDTO.UserAttendanceStatsDTOBuilder stats = UserAttendanceStatsDTO.builder()
+                .userId(userId)
+                .userName(userName)
+                .startDate(startDate)
+                .endDate(endDate);
+
+        if (fields.contains(AttendanceStatsField.PRESENCE)) {
+            stats.totalDays(ChronoUnit.DAYS.between(startDate, endDate) + 1)
+                    .presentDays(cardinality(presentDays));
+        }
+        if (fields.contains(AttendanceStatsField.HOURS)) {
+            long attendedDays = cardinality(recordDays);
+            double totalAttendanceHours = attendanceMinutes / 60.0;
+            stats.totalAttendanceHours(totalAttendanceHours)
+                    .averageWorkHours(attendedDays > 0 ? totalAttendanceHours / attendedDays : 0.0);
+        }
+        if (fields.contains(AttendanceStatsField.TRACKED_HOURS)) {
+            stats.totalTrackedHours(trackedHours);
+        }
+        if (fields.contains(AttendanceStatsField.CHECK_IN)) {
+            stats.averageCheckInTime(averageTime(checkInSecondsSum, recordCount))
+                    .lateCheckIns(lateCheckIns);
+        }
+        if (fields.contains(AttendanceStatsField.CHECK_OUT)) {
+            stats.averageCheckOutTime(averageTime(checkOutSecondsSum, checkOutCount))
+                    .earlyCheckOuts(earlyCheckOuts);
+        }
+        if (fields.contains(AttendanceStatsField.DAILY)) {
+            dailyStats.sort(Comparator.comparing(DailyStatsDTO::getDate).reversed());
+            stats.dailyStats(dailyStats);
+        }
+        return stats.build();
+    }
+
+    private static long cardinality(long[] bitmap) {
+        long count = 0;
+        for (long word : bitmap) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static LocalTime averageTime(long secondsSum, long count) {
+        return count > 0 ? LocalTime.ofSecondOfDay(secondsSum / count) : null;
+    }
+}
@@ -0,0 +1,82 @@
+package com.employee.service.pagination;
+
+import com.employee.dto.CursorPageDTO;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Position after the last row of a page: the sort key of that row plus its id as tie-breaker.
+// Clients get it as an opaque url-safe token and send it back unchanged for the next page;
+// the query then continues strictly after (key, id) instead of skipping an OFFSET.
+@Value
+public class KeysetCursor {
+    String key;
+    long id;
+
+    public static KeysetCursor of(LocalDateTime key, long id) {
+        return new KeysetCursor(key.toString(), id);
+    }
+
+    public static KeysetCursor of(LocalDate key, long id) {
+        return new KeysetCursor(key.toString(), id);
+    }
+
+    // For lists ordered by id alone
+    public static KeysetCursor of(long id) {
+        return new KeysetCursor("", id);
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(value.substring(0, separator), Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((key + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime dateTimeKey() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public LocalDate dateKey() {
+        try {
+            return LocalDate.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    // rows holds up to pageSize + 1 entities; the extra one only tells that another page exists
+    public static <E, T> CursorPageDTO<T> toPage(
+            List<E> rows, int pageSize, Function<E, KeysetCursor> cursorOf, Function<E, T> mapper) {
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = cursorOf.apply(rows.get(pageSize - 1)).encode();
+        }
+        return CursorPageDTO.<T>builder()
+                .items(rows.stream().map(mapper).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
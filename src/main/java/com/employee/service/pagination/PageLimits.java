@@ -0,0 +1,25 @@
+package com.employee.service.pagination;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+// Page size bounds shared by the keyset-paginated list endpoints
+@Component
+public class PageLimits {
+    @Value("${pagination.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${pagination.max-page-size:1000}")
+    private int maxPageSize;
+
+    public int pageSize(Integer requested) {
+        return Math.max(1, Math.min(requested != null ? requested : defaultPageSize, maxPageSize));
+    }
+
+    // Fetches one row more than the page so the caller knows whether a next page exists
+    public Pageable probe(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+}
@@ -0,0 +1,243 @@
+package com.employee.service.period;
+
+import com.employee.dto.period.ClosedPeriodDTO;
+import com.employee.model.period.ClosedPeriod;
+import com.employee.repository.AttendanceRecordJdbcRepository.DayKey;
+import com.employee.repository.AttendanceStatsJdbcRepository;
+import com.employee.repository.AttendanceStatsJdbcRepository.RollupDay;
+import com.employee.repository.ClosedPeriodRepository;
+import com.employee.repository.PeriodSnapshotJdbcRepository;
+import com.employee.repository.PeriodSnapshotJdbcRepository.SnapshotRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Period close: once a month is closed its per-user aggregates are frozen into
+// period_snapshots, and reports combine those snapshots with live computation for the
+// open part of their range. Time entries in a closed month are rejected; attendance
+// changes that still reach one (forced or automatic check-outs of old records) rebuild
+// the affected user's snapshot. Which months are closed is read from closed_periods every
+// time, a handful of rows, so every node sees a close or reopen as soon as it commits.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PeriodCloseService {
+    private final ClosedPeriodRepository closedPeriodRepository;
+    private final PeriodSnapshotJdbcRepository periodSnapshotJdbcRepository;
+    private final AttendanceStatsJdbcRepository attendanceStatsJdbcRepository;
+
+    @Transactional
+    public ClosedPeriodDTO closePeriod(YearMonth month, String closedBy) {
+        LocalDate periodStart = month.atDay(1);
+        if (!month.atEndOfMonth().isBefore(LocalDate.now())) {
+            throw new RuntimeException("Only past months can be closed");
+        }
+        if (closedPeriodRepository.findByPeriodStart(periodStart).isPresent()) {
+            throw new RuntimeException("Period " + month + " is already closed");
+        }
+
+        // The month shows as closed, with its snapshots, only once this commits. Until then
+        // attendance and time entry writes wait, so none can slip in between the snapshots being
+        // taken and the month being closed; a write to the month that was waiting finds it
+        // closed afterwards and rebuilds its user's snapshot.
+        periodSnapshotJdbcRepository.lockSources();
+        int snapshots = writeSnapshots(periodStart, null);
+        ClosedPeriod period = closedPeriodRepository.save(ClosedPeriod.builder()
+                .periodStart(periodStart)
+                .closedAt(LocalDateTime.now())
+                .closedBy(closedBy)
+                .build());
+
+        log.info("Closed period {} with {} user snapshots", month, snapshots);
+        return mapToDTO(period, snapshots);
+    }
+
+    @Transactional
+    public void reopenPeriod(YearMonth month) {
+        LocalDate periodStart = month.atDay(1);
+        ClosedPeriod period = closedPeriodRepository.findByPeriodStart(periodStart)
+                .orElseThrow(() -> new RuntimeException("Period " + month + " is not closed"));
+
+        periodSnapshotJdbcRepository.deleteMonth(periodStart, null);
+        closedPeriodRepository.delete(period);
+        log.info("Reopened period {}", month);
+    }
+
+    public List<ClosedPeriodDTO> getClosedPeriods() {
+        return closedPeriodRepository.findAllByOrderByPeriodStartDesc().stream()
+                .map(period -> mapToDTO(period, null))
+                .collect(Collectors.toList());
+    }
+
+    public boolean isClosed(LocalDate date) {
+        return closedPeriodRepository.existsByPeriodStart(date.withDayOfMonth(1));
+    }
+
+    // First days of the closed months overlapping [from, to]
+    public Set<LocalDate> closedMonths(LocalDate from, LocalDate to) {
+        return new HashSet<>(closedPeriodRepository.findPeriodStartsBetween(from.withDayOfMonth(1), to));
+    }
+
+    public void assertOpen(LocalDate date) {
+        if (isClosed(date)) {
+            throw new RuntimeException("Period " + YearMonth.from(date) + " is closed");
+        }
+    }
+
+    // Rebuilds the snapshots of closed months that contain any of the changed user days
+    @Transactional
+    public void rebuildAffected(Collection<DayKey> keys) {
+        Set<LocalDate> months = new HashSet<>();
+        keys.forEach(key -> months.add(key.getWorkDate().withDayOfMonth(1)));
+        if (months.isEmpty()) {
+            return;
+        }
+        Set<LocalDate> closed = new HashSet<>(closedPeriodRepository.findPeriodStartsIn(months));
+        if (closed.isEmpty()) {
+            return;
+        }
+
+        Set<DayKey> userMonths = new HashSet<>();
+        for (DayKey key : keys) {
+            LocalDate month = key.getWorkDate().withDayOfMonth(1);
+            if (closed.contains(month)) {
+                userMonths.add(new DayKey(key.getUserId(), month));
+            }
+        }
+        userMonths.forEach(userMonth -> writeSnapshots(userMonth.getWorkDate(), userMonth.getUserId()));
+    }
+
+    // Rebuilds every snapshot of the closed months overlapping [from, to]; null bounds are open
+    @Transactional
+    public void rebuildMonths(LocalDate from, LocalDate to) {
+        for (LocalDate periodStart : closedPeriodRepository.findAllPeriodStarts()) {
+            LocalDate periodEnd = periodStart.plusMonths(1).minusDays(1);
+            if ((from == null || !periodEnd.isBefore(from)) && (to == null || !periodStart.isAfter(to))) {
+                writeSnapshots(periodStart, null);
+            }
+        }
+    }
+
+    public PeriodPlan plan(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> snapshotMonths = new ArrayList<>();
+        List<PeriodPlan.DateRange> openRanges = new ArrayList<>();
+        if (startDate.isAfter(endDate)) {
+            openRanges.add(new PeriodPlan.DateRange(startDate, endDate));
+            return new PeriodPlan(snapshotMonths, openRanges);
+        }
+
+        Set<LocalDate> closedMonths = closedMonths(startDate, endDate);
+        LocalDate openFrom = null;
+        LocalDate cursor = startDate;
+        while (!cursor.isAfter(endDate)) {
+            LocalDate monthStart = cursor.withDayOfMonth(1);
+            LocalDate monthEnd = monthStart.plusMonths(1).minusDays(1);
+            LocalDate to = monthEnd.isAfter(endDate) ? endDate : monthEnd;
+
+            if (cursor.equals(monthStart) && to.equals(monthEnd) && closedMonths.contains(monthStart)) {
+                if (openFrom != null) {
+                    openRanges.add(new PeriodPlan.DateRange(openFrom, cursor.minusDays(1)));
+                    openFrom = null;
+                }
+                snapshotMonths.add(monthStart);
+            } else if (openFrom == null) {
+                openFrom = cursor;
+            }
+            cursor = to.plusDays(1);
+        }
+        if (openFrom != null) {
+            openRanges.add(new PeriodPlan.DateRange(openFrom, endDate));
+        }
+        return new PeriodPlan(snapshotMonths, openRanges);
+    }
+
+    // Streams the snapshots of the given closed months, of one user or, with a null id, of everybody
+    public void forEachSnapshot(
+            Long userId,
+            Collection<LocalDate> months,
+            boolean withDays,
+            Consumer<SnapshotRow> consumer) {
+        periodSnapshotJdbcRepository.forEach(userId, months, withDays, consumer);
+    }
+
+    // The daily rollup rows frozen in a snapshot read with days
+    public List<RollupDay> decodeDays(SnapshotRow snapshot) {
+        return PeriodSnapshotCodec.decode(snapshot.getUserId(), snapshot.getPeriodStart(), snapshot.getDays());
+    }
+
+    private int writeSnapshots(LocalDate periodStart, Long userId) {
+        Map<Long, List<RollupDay>> daysByUser = new HashMap<>();
+        attendanceStatsJdbcRepository.forEachDay(
+                userId,
+                periodStart,
+                periodStart.plusMonths(1).minusDays(1),
+                day -> daysByUser.computeIfAbsent(day.getUserId(), id -> new ArrayList<>()).add(day));
+
+        List<SnapshotRow> rows = daysByUser.entrySet().stream()
+                .map(entry -> toSnapshot(entry.getKey(), periodStart, entry.getValue()))
+                .collect(Collectors.toList());
+
+        periodSnapshotJdbcRepository.deleteMonth(periodStart, userId);
+        periodSnapshotJdbcRepository.batchInsert(rows);
+        return rows.size();
+    }
+
+    private SnapshotRow toSnapshot(Long userId, LocalDate periodStart, List<RollupDay> days) {
+        int presentDays = 0;
+        int recordDays = 0;
+        long attendanceMinutes = 0;
+        int lateCheckIns = 0;
+        int earlyCheckOuts = 0;
+        double trackedHours = 0;
+        int entryCount = 0;
+        int entryDays = 0;
+        for (RollupDay day : days) {
+            presentDays += day.isPresent() ? 1 : 0;
+            recordDays += day.getRecordCount() > 0 ? 1 : 0;
+            attendanceMinutes += day.getAttendanceMinutes();
+            lateCheckIns += day.getLateCheckIns();
+            earlyCheckOuts += day.getEarlyCheckOuts();
+            trackedHours += day.getTrackedHours();
+            entryCount += day.getEntryCount();
+            entryDays += day.getEntryCount() > 0 ? 1 : 0;
+        }
+
+        return SnapshotRow.builder()
+                .userId(userId)
+                .periodStart(periodStart)
+                .presentDays(presentDays)
+                .recordDays(recordDays)
+                .attendanceMinutes(attendanceMinutes)
+                .lateCheckIns(lateCheckIns)
+                .earlyCheckOuts(earlyCheckOuts)
+                .trackedHours(trackedHours)
+                .entryCount(entryCount)
+                .entryDays(entryDays)
+                .days(PeriodSnapshotCodec.encode(days))
+                .build();
+    }
+
+    private ClosedPeriodDTO mapToDTO(ClosedPeriod period, Integer snapshots) {
+        return ClosedPeriodDTO.builder()
+                .period(YearMonth.from(period.getPeriodStart()).toString())
+                .periodStart(period.getPeriodStart())
+                .closedAt(period.getClosedAt())
+                .closedBy(period.getClosedBy())
+                .snapshots(snapshots)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.employee.service.period;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// A query range split into closed months lying wholly inside it, answered from snapshots,
+// and the remaining open date ranges, computed live
+@Value
+public class PeriodPlan {
+    List<LocalDate> closedMonths;
+    List<DateRange> openRanges;
+
+    @Value
+    public static class DateRange {
+        LocalDate from;
+        LocalDate to;
+    }
+}
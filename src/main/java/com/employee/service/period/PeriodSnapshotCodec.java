@@ -0,0 +1,94 @@
+package com.employee.service.period;
+
+import com.employee.model.attendance.AttendanceStatus;
+import com.employee.repository.AttendanceStatsJdbcRepository.RollupDay;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Packs the daily rollup rows of one user and month into a byte array and back.
+// Only days with data are written; each takes 41 bytes. Times are stored as seconds from
+// the start of the day (whole seconds) and statuses by enum position plus one, zero being none;
+// new statuses must be appended to AttendanceStatus.
+final class PeriodSnapshotCodec {
+    private static final byte VERSION = 1;
+    private static final int DAY_BYTES = 41;
+    private static final int NO_TIME = Integer.MIN_VALUE;
+    private static final AttendanceStatus[] STATUSES = AttendanceStatus.values();
+
+    private PeriodSnapshotCodec() {
+    }
+
+    static byte[] encode(List<RollupDay> days) {
+        ByteBuffer buffer = ByteBuffer.allocate(3 + days.size() * DAY_BYTES);
+        buffer.put(VERSION);
+        buffer.putShort((short) days.size());
+        for (RollupDay day : days) {
+            LocalDateTime dayStart = day.getDate().atStartOfDay();
+            buffer.put((byte) day.getDate().getDayOfMonth());
+            buffer.putShort((short) day.getRecordCount());
+            buffer.put((byte) (day.isPresent() ? 1 : 0));
+            buffer.put((byte) (day.getStatus() != null ? day.getStatus().ordinal() + 1 : 0));
+            buffer.putInt(secondsFrom(dayStart, day.getFirstCheckIn()));
+            buffer.putInt(secondsFrom(dayStart, day.getLastCheckOut()));
+            buffer.putInt((int) day.getAttendanceMinutes());
+            buffer.putInt((int) day.getCheckInSecondsSum());
+            buffer.putShort((short) day.getCheckOutCount());
+            buffer.putInt((int) day.getCheckOutSecondsSum());
+            buffer.putShort((short) day.getLateCheckIns());
+            buffer.putShort((short) day.getEarlyCheckOuts());
+            buffer.putDouble(day.getTrackedHours());
+            buffer.putShort((short) day.getEntryCount());
+        }
+        return buffer.array();
+    }
+
+    static List<RollupDay> decode(long userId, LocalDate periodStart, byte[] packed) {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported period snapshot version " + version);
+        }
+
+        int count = buffer.getShort();
+        List<RollupDay> days = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate date = periodStart.withDayOfMonth(buffer.get());
+            LocalDateTime dayStart = date.atStartOfDay();
+            int recordCount = buffer.getShort();
+            boolean present = buffer.get() == 1;
+            int status = buffer.get();
+
+            days.add(RollupDay.builder()
+                    .userId(userId)
+                    .date(date)
+                    .recordCount(recordCount)
+                    .present(present)
+                    .status(status > 0 ? STATUSES[status - 1] : null)
+                    .firstCheckIn(timeFrom(dayStart, buffer.getInt()))
+                    .lastCheckOut(timeFrom(dayStart, buffer.getInt()))
+                    .attendanceMinutes(buffer.getInt())
+                    .checkInSecondsSum(buffer.getInt())
+                    .checkOutCount(buffer.getShort())
+                    .checkOutSecondsSum(buffer.getInt())
+                    .lateCheckIns(buffer.getShort())
+                    .earlyCheckOuts(buffer.getShort())
+                    .trackedHours(buffer.getDouble())
+                    .entryCount(buffer.getShort())
+                    .build());
+        }
+        return days;
+    }
+
+    private static int secondsFrom(LocalDateTime dayStart, LocalDateTime time) {
+        return time != null ? (int) Duration.between(dayStart, time).getSeconds() : NO_TIME;
+    }
+
+    private static LocalDateTime timeFrom(LocalDateTime dayStart, int seconds) {
+        return seconds != NO_TIME ? dayStart.plusSeconds(seconds) : null;
+    }
+}
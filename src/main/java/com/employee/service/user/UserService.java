@@ -1,5 +1,6 @@
 package com.employee.service.user;
 
+import com.employee.dto.CursorPageDTO;
 import com.employee.dto.meeting.MeetingDTO;
 import com.employee.dto.auth.UpdateProfileRequest;
 import com.employee.dto.user.UserDTO;
@@ -8,16 +9,25 @@ import com.employee.model.meeting.Meeting;
 import com.employee.model.timesheet.TimeEntry;
 import com.employee.model.user.User;
 import com.employee.model.user.UserRole;
+import com.employee.repository.AttendanceStatsJdbcRepository.RollupDay;
 import com.employee.repository.MeetingRepository;
 import com.employee.repository.TimeEntryRepository;
 import com.employee.repository.UserRepository;
+import com.employee.service.StatisticsResultCache;
+import com.employee.service.attendance.AttendanceStateStore;
+import com.employee.service.pagination.KeysetCursor;
+import com.employee.service.pagination.PageLimits;
+import com.employee.service.period.PeriodCloseService;
+import com.employee.service.period.PeriodPlan;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -29,6 +39,10 @@ public class UserService {
     private final UserRepository userRepository;
     private final TimeEntryRepository timeEntryRepository;
     private final MeetingRepository meetingRepository;
+    private final PeriodCloseService periodCloseService;
+    private final StatisticsResultCache statisticsResultCache;
+    private final AttendanceStateStore attendanceStateStore;
+    private final PageLimits pageLimits;
 
     public UserDTO getUserProfile(String email) {
         User user = userRepository.findByEmail(email)
@@ -47,15 +61,20 @@ public class UserService {
         user.setBirthday(request.getBirthday());
 
         user = userRepository.save(user);
+        statisticsResultCache.invalidateUser(user.getId());
+        attendanceStateStore.forgetUser(email);
         return mapToDTO(user);
     }
 
 
 
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    // Keyset-paginated on id; ids grow with sign-up time
+    public CursorPageDTO<UserDTO> getAllUsers(String cursor, Integer limit) {
+        long afterId = cursor != null ? KeysetCursor.decode(cursor).getId() : 0L;
+        int pageSize = pageLimits.pageSize(limit);
+        List<User> users = userRepository.findAllByIdGreaterThanOrderByIdAsc(afterId, pageLimits.probe(pageSize));
+
+        return KeysetCursor.toPage(users, pageSize, user -> KeysetCursor.of(user.getId()), this::mapToDTO);
     }
 
     public UserDTO updateUserRole(Long userId, UserRole newRole) {
@@ -64,6 +83,7 @@ public class UserService {
 
         user.setRole(newRole);
         user = userRepository.save(user);
+        statisticsResultCache.invalidateUser(user.getId());
 
         SecurityContextHolder.clearContext();
 
@@ -72,15 +92,53 @@ public class UserService {
 
     public List<UserStatisticsDTO> getAllUsersStatistics(LocalDate startDate, LocalDate endDate) {
         List<User> users = userRepository.findAll();
+
+        // Closed months come from their snapshots, in one read for all users
+        PeriodPlan plan = periodCloseService.plan(startDate, endDate);
+        Map<Long, List<RollupDay>> closedDays = new HashMap<>();
+        periodCloseService.forEachSnapshot(null, plan.getClosedMonths(), true, snapshot -> {
+            if (snapshot.getEntryCount() > 0) {
+                closedDays.computeIfAbsent(snapshot.getUserId(), id -> new ArrayList<>())
+                        .addAll(periodCloseService.decodeDays(snapshot));
+            }
+        });
+
         return users.stream()
-                .map(user -> getUserStatisticsForUser(user, startDate, endDate))
+                .map(user -> getUserStatisticsForUser(
+                        user,
+                        startDate,
+                        endDate,
+                        closedDays.getOrDefault(user.getId(), List.of()),
+                        plan.getOpenRanges()))
                 .collect(Collectors.toList());
     }
 
-    private UserStatisticsDTO getUserStatisticsForUser(User user, LocalDate startDate, LocalDate endDate) {
-        // Get time entries
-        List<TimeEntry> timeEntries = timeEntryRepository
-                .findByUserAndDateBetweenOrderByDateDesc(user, startDate, endDate);
+    private UserStatisticsDTO getUserStatisticsForUser(
+            User user,
+            LocalDate startDate,
+            LocalDate endDate,
+            List<RollupDay> closedDays,
+            List<PeriodPlan.DateRange> openRanges) {
+        Map<LocalDate, Double> hoursPerDay = new HashMap<>();
+        int totalTimeEntries = 0;
+
+        // Days of closed months
+        for (RollupDay day : closedDays) {
+            if (day.getEntryCount() > 0) {
+                hoursPerDay.merge(day.getDate(), day.getTrackedHours(), Double::sum);
+                totalTimeEntries += day.getEntryCount();
+            }
+        }
+
+        // Get time entries of the open part of the range
+        for (PeriodPlan.DateRange range : openRanges) {
+            List<TimeEntry> timeEntries = timeEntryRepository
+                    .findByUserAndDateBetweenOrderByDateDesc(user, range.getFrom(), range.getTo());
+            for (TimeEntry entry : timeEntries) {
+                hoursPerDay.merge(entry.getDate(), entry.getHours(), Double::sum);
+            }
+            totalTimeEntries += timeEntries.size();
+        }
 
         // Get meetings
         List<Meeting> meetings = meetingRepository
@@ -91,20 +149,11 @@ public class UserService {
                 );
 
         // Calculate statistics
-        Double totalHours = timeEntries.stream()
-                .mapToDouble(TimeEntry::getHours)
+        Double totalHours = hoursPerDay.values().stream()
+                .mapToDouble(Double::doubleValue)
                 .sum();
 
-        Map<LocalDate, Double> hoursPerDay = timeEntries.stream()
-                .collect(Collectors.groupingBy(
-                        TimeEntry::getDate,
-                        Collectors.summingDouble(TimeEntry::getHours)
-                ));
-
-        long daysWorked = timeEntries.stream()
-                .map(TimeEntry::getDate)
-                .distinct()
-                .count();
+        long daysWorked = hoursPerDay.size();
 
         Double averageHoursPerDay = daysWorked > 0 ? totalHours / daysWorked : 0.0;
 
@@ -116,7 +165,7 @@ public class UserService {
         return UserStatisticsDTO.builder()
                 .user(mapToDTO(user))
                 .totalHoursLogged(totalHours)
-                .totalTimeEntries(timeEntries.size())
+                .totalTimeEntries(totalTimeEntries)
                 .totalMeetings(meetings.size())
                 .hoursPerDay(hoursPerDay)
                 .upcomingMeetings(upcomingMeetings.stream()
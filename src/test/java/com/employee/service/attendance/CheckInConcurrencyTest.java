@@ -0,0 +1,227 @@
+package com.employee.service.attendance;
+
+import com.employee.dto.checkin.CheckInRequest;
+import com.employee.model.checkin.OfficeLocation;
+import com.employee.model.user.User;
+import com.employee.model.user.UserRole;
+import com.employee.repository.AttendanceRecordJdbcRepository;
+import com.employee.repository.AttendanceRecordJdbcRepository.CheckInOutcome;
+import com.employee.repository.AttendanceRecordJdbcRepository.CheckInRow;
+import com.employee.repository.OfficeLocationRepository;
+import com.employee.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Thousands of simultaneous check-in taps for a few users against a real PostgreSQL: the
+// unique (user_id, work_date) constraint has to leave exactly one record per user and day,
+// and exactly one tap per user may be told it checked in.
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@Testcontainers
+class CheckInConcurrencyTest {
+    private static final int USERS = 50;
+    private static final int TAPS_PER_USER = 40;
+    private static final int THREADS = 64;
+
+    private static final double OFFICE_LATITUDE = 52.2297;
+    private static final double OFFICE_LONGITUDE = 21.0122;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private AttendanceRecordJdbcRepository attendanceRecordJdbcRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OfficeLocationRepository officeLocationRepository;
+
+    @Autowired
+    private OfficeLocationIndex officeLocationIndex;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private OfficeLocation office;
+
+    @BeforeEach
+    void setUp() {
+        office = officeLocationRepository.save(OfficeLocation.builder()
+                .name("Office " + UUID.randomUUID())
+                .address("Main street 1")
+                .latitude(OFFICE_LATITUDE)
+                .longitude(OFFICE_LONGITUDE)
+                .allowedRadius(200.0)
+                .isActive(true)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        officeLocationIndex.rebuild();
+    }
+
+    @Test
+    void simultaneousTapsLeaveOneRecordPerUserAndDay() throws Exception {
+        List<User> users = createUsers();
+        CheckInRequest request = new CheckInRequest();
+        request.setLatitude(OFFICE_LATITUDE);
+        request.setLongitude(OFFICE_LONGITUDE);
+        request.setOfficeId(office.getId());
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runSimultaneously(users, user -> () -> {
+            try {
+                attendanceService.checkIn(user.getEmail(), request);
+                accepted.incrementAndGet();
+            } catch (RuntimeException e) {
+                rejected.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertThat(accepted.get()).isEqualTo(USERS);
+        assertThat(rejected.get()).isEqualTo(USERS * TAPS_PER_USER - USERS);
+        assertOneRecordPerUser(users);
+
+        // Rollups and histograms are added to in place, concurrent check-ins must all be counted
+        assertThat(namedParameterJdbcTemplate.queryForObject(
+                        "SELECT COALESCE(SUM(record_count), 0) FROM attendance_daily_rollups "
+                                + "WHERE work_date = :today AND user_id IN (:userIds)",
+                        todayOf(users),
+                        Long.class))
+                .isEqualTo(USERS);
+        assertThat(namedParameterJdbcTemplate.queryForObject(
+                        "SELECT check_ins FROM office_minute_histograms "
+                                + "WHERE office_id = :officeId AND work_date = :today",
+                        todayOf(users).addValue("officeId", office.getId()),
+                        Integer.class))
+                .isEqualTo(USERS);
+    }
+
+    @Test
+    void conditionalInsertReportsExactlyOneInsertPerUserAndDay() throws Exception {
+        List<User> users = createUsers();
+        LocalDateTime checkInTime = LocalDateTime.now();
+
+        AtomicInteger inserted = new AtomicInteger();
+        runSimultaneously(users, user -> () -> {
+            CheckInOutcome outcome = attendanceRecordJdbcRepository.insertCheckIn(CheckInRow.builder()
+                    .userId(user.getId())
+                    .officeId(office.getId())
+                    .checkInTime(checkInTime)
+                    .latitude(OFFICE_LATITUDE)
+                    .longitude(OFFICE_LONGITUDE)
+                    .build());
+            if (outcome.isInserted()) {
+                inserted.incrementAndGet();
+            }
+            assertThat(outcome.getRecord().getUserId()).isEqualTo(user.getId());
+            return null;
+        });
+
+        assertThat(inserted.get()).isEqualTo(USERS);
+        assertOneRecordPerUser(users);
+    }
+
+    private List<User> createUsers() {
+        String run = UUID.randomUUID().toString();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder()
+                    .email("tap-" + i + "-" + run + "@example.com")
+                    .password("unused")
+                    .firstName("Tap")
+                    .lastName("User " + i)
+                    .role(UserRole.USER)
+                    .build());
+        }
+        return userRepository.saveAll(users);
+    }
+
+    // Every user gets TAPS_PER_USER taps, shuffled and released at once from a shared gate
+    private void runSimultaneously(List<User> users, TapFactory taps) throws Exception {
+        List<Callable<Void>> calls = new ArrayList<>();
+        for (User user : users) {
+            for (int i = 0; i < TAPS_PER_USER; i++) {
+                calls.add(taps.tap(user));
+            }
+        }
+        Collections.shuffle(calls);
+
+        CountDownLatch gate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> call : calls) {
+                futures.add(executor.submit(() -> {
+                    gate.await();
+                    return call.call();
+                }));
+            }
+            gate.countDown();
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertOneRecordPerUser(List<User> users) {
+        List<Map<String, Object>> counts = namedParameterJdbcTemplate.queryForList("""
+                        SELECT user_id, COUNT(*) AS records
+                        FROM attendance_records
+                        WHERE user_id IN (:userIds) AND CAST(check_in_time AS date) = :today
+                        GROUP BY user_id
+                        """,
+                todayOf(users));
+
+        assertThat(counts).hasSize(USERS);
+        assertThat(counts).allSatisfy(row -> assertThat(((Number) row.get("records")).intValue()).isEqualTo(1));
+    }
+
+    private static MapSqlParameterSource todayOf(List<User> users) {
+        return new MapSqlParameterSource()
+                .addValue("userIds", users.stream().map(User::getId).toList())
+                .addValue("today", LocalDate.now());
+    }
+
+    @FunctionalInterface
+    private interface TapFactory {
+        Callable<Void> tap(User user);
+    }
+}